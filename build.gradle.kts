@@ -1,5 +1,7 @@
 plugins {
     id("java")
+    id("application")
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.copicraftDev"
@@ -9,6 +11,17 @@ repositories {
     mavenCentral()
 }
 
+// Only the natives of the platform we build on (-Plwjgl.natives=natives-windows etc. to override)
+val lwjglNatives = (findProperty("lwjgl.natives") as String?) ?: run {
+    val os = System.getProperty("os.name").lowercase()
+    val arm = System.getProperty("os.arch") in listOf("aarch64", "arm64")
+    when {
+        os.contains("win") -> "natives-windows"
+        os.contains("mac") -> if (arm) "natives-macos-arm64" else "natives-macos"
+        else -> if (arm) "natives-linux-arm64" else "natives-linux"
+    }
+}
+
 dependencies {
     // ----------------- LWJGL (OpenGL + GLFW) -----------------
     implementation(platform("org.lwjgl:lwjgl-bom:3.3.3"))
@@ -17,20 +30,10 @@ dependencies {
     implementation("org.lwjgl:lwjgl-glfw")
     implementation("org.lwjgl:lwjgl-opengl")
 
-    // Linux natives
-    runtimeOnly("org.lwjgl:lwjgl::natives-linux")
-    runtimeOnly("org.lwjgl:lwjgl-glfw::natives-linux")
-    runtimeOnly("org.lwjgl:lwjgl-opengl::natives-linux")
-
-    // Windows natives
-    runtimeOnly("org.lwjgl:lwjgl::natives-windows")
-    runtimeOnly("org.lwjgl:lwjgl-glfw::natives-windows")
-    runtimeOnly("org.lwjgl:lwjgl-opengl::natives-windows")
-
-    // macOS natives
-    runtimeOnly("org.lwjgl:lwjgl::natives-macos")
-    runtimeOnly("org.lwjgl:lwjgl-glfw::natives-macos")
-    runtimeOnly("org.lwjgl:lwjgl-opengl::natives-macos")
+    // host platform natives
+    runtimeOnly("org.lwjgl:lwjgl::$lwjglNatives")
+    runtimeOnly("org.lwjgl:lwjgl-glfw::$lwjglNatives")
+    runtimeOnly("org.lwjgl:lwjgl-opengl::$lwjglNatives")
 
     // ----------------- JUnit -----------------
     testImplementation(platform("org.junit:junit-bom:5.10.0"))
@@ -47,3 +50,240 @@ java {
         languageVersion.set(JavaLanguageVersion.of(21))
     }
 }
+
+// The particle kernel uses the incubating Vector API (falls back to scalar code without it)
+val vectorModule = listOf("--add-modules", "jdk.incubator.vector")
+tasks.withType<JavaCompile>().configureEach {
+    options.compilerArgs.addAll(vectorModule)
+}
+tasks.withType<JavaExec>().configureEach {
+    jvmArgs(vectorModule)
+}
+
+// ----------------- JMH -----------------
+// ./gradlew jmh               -> build/results/jmh/results.json (throughput + -prof gc)
+// ./gradlew jmhSaveBaseline   -> copy those results to src/jmh/baseline.json (commit it)
+// ./gradlew jmhCompare        -> run jmh, fail if any benchmark regressed against the baseline
+//                                (or if there is none; scores only compare on the machine
+//                                that recorded them, so re-record it when that changes)
+jmh {
+    jmhVersion.set("1.37")
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+    profilers.set(listOf("gc"))
+    jvmArgsAppend.set(vectorModule)
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+}
+
+val jmhResults = layout.buildDirectory.file("results/jmh/results.json")
+val jmhBaseline = layout.projectDirectory.file("src/jmh/baseline.json")
+
+tasks.register<Copy>("jmhSaveBaseline") {
+    group = "benchmark"
+    description = "Stores the latest JMH results as the checked-in baseline."
+    from(jmhResults)
+    into(jmhBaseline.asFile.parentFile)
+    rename { jmhBaseline.asFile.name }
+}
+
+tasks.register("jmhCompare") {
+    group = "benchmark"
+    description = "Runs JMH and compares the results with the checked-in baseline."
+    dependsOn("jmh")
+    val maxSlowdown = (findProperty("jmh.maxSlowdown") as String?)?.toDouble() ?: 0.10
+    val maxExtraAllocBytes = (findProperty("jmh.maxExtraAllocBytes") as String?)?.toDouble() ?: 16.0
+    doLast {
+        val baselineFile = jmhBaseline.asFile
+        val resultsFile = jmhResults.get().asFile
+        if (!resultsFile.exists()) throw GradleException("No results at $resultsFile")
+        if (!baselineFile.exists()) {
+            throw GradleException("No baseline at $baselineFile: record one with ./gradlew jmhSaveBaseline and commit it")
+        }
+
+        fun load(f: File): Map<String, Map<*, *>> {
+            @Suppress("UNCHECKED_CAST")
+            val runs = groovy.json.JsonSlurper().parse(f) as List<Map<*, *>>
+            return runs.associateBy { r ->
+                val params = (r["params"] as Map<*, *>?)?.entries?.joinToString(",") { "${it.key}=${it.value}" } ?: ""
+                "${r["benchmark"]}($params)"
+            }
+        }
+        fun score(r: Map<*, *>) = ((r["primaryMetric"] as Map<*, *>)["score"] as Number).toDouble()
+        fun allocNorm(r: Map<*, *>): Double? {
+            val sec = r["secondaryMetrics"] as Map<*, *>? ?: return null
+            val m = sec["gc.alloc.rate.norm"] as Map<*, *>? ?: return null
+            return (m["score"] as Number).toDouble()
+        }
+
+        val base = load(baselineFile)
+        val current = load(resultsFile)
+        val failures = mutableListOf<String>()
+        for ((name, cur) in current) {
+            val old = base[name]
+            if (old == null) {
+                println("%-70s not in the baseline".format(name))
+                continue
+            }
+            val mode = cur["mode"] as String
+            val b = score(old)
+            val c = score(cur)
+            // throughput: higher is better; time modes: lower is better
+            val slowdown = if (mode == "thrpt") (b - c) / b else (c - b) / b
+            val oldAlloc = allocNorm(old) ?: 0.0
+            val newAlloc = allocNorm(cur) ?: 0.0
+            val line = "%-70s %12.3f -> %12.3f  (%+.1f%%)  alloc %.0f -> %.0f B/op".format(
+                name, b, c, -slowdown * 100, oldAlloc, newAlloc)
+            println(line)
+            if (slowdown > maxSlowdown) failures += "slower: $line"
+            if (newAlloc - oldAlloc > maxExtraAllocBytes) failures += "allocates more: $line"
+        }
+        if (failures.isNotEmpty()) throw GradleException("JMH regressions:\n" + failures.joinToString("\n"))
+    }
+}
+
+// ----------------- Replay -----------------
+// ./gradlew replay -Precording=session.dxr  -> re-run a -Dde.record session headless, verify the end state
+tasks.register<JavaExec>("replay") {
+    group = "application"
+    description = "Replays a recorded input session headless at full speed."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.copicraftDev.Replay")
+    args(findProperty("recording") as String? ?: "session.dxr")
+}
+
+// ----------------- Tuning sweeps -----------------
+// ./gradlew batch --args="--runs 1000 --grid spawnChance1D=0.3,0.45,0.6 --out sweep.csv"
+tasks.register<JavaExec>("batch") {
+    group = "application"
+    description = "Runs seeded headless simulations in parallel over a tuning grid (CSV out)."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.copicraftDev.BatchRunner")
+}
+
+// ----------------- GL call count -----------------
+// ./gradlew glCalls --args="--frames 600 --max-calls 16"  -> GL calls per frame without a GPU, fails over budget
+tasks.register<JavaExec>("glCalls") {
+    group = "verification"
+    description = "Counts the GL calls a game frame issues against a recording GL backend."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.copicraftDev.GlCallReport")
+}
+
+// ----------------- Application / fast start -----------------
+// ./gradlew run                -> play from the build
+// ./gradlew installDist        -> build/install/DimensionExpander (bin/, lib/, natives/)
+// ./gradlew cdsArchive         -> train an AppCDS archive (lib/main.jsa) on the menu + first seconds of play
+// ./gradlew startupTime        -> launch-to-first-frame with and without the archive
+// The last two open a window (use xvfb-run on a headless box).
+application {
+    mainClass.set("com.copicraftDev.Main")
+}
+
+// The native libraries unpacked once at build time; LWJGL loads them from
+// org.lwjgl.librarypath instead of extracting its jars on every cold start.
+val nativesDir = layout.buildDirectory.dir("natives")
+val extractNatives = tasks.register<Sync>("extractNatives") {
+    from(configurations.runtimeClasspath.map { cp -> cp.filter { it.name.contains("-natives-") }.map { zipTree(it) } })
+    include("**/*.so", "**/*.dll", "**/*.dylib")
+    eachFile { path = name }
+    includeEmptyDirs = false
+    into(nativesDir)
+}
+
+tasks.named<JavaExec>("run") {
+    dependsOn(extractNatives)
+    systemProperty("org.lwjgl.librarypath", nativesDir.get().asFile.absolutePath)
+}
+
+distributions {
+    main {
+        contents {
+            from(extractNatives) { into("natives") }
+        }
+    }
+}
+
+// The start scripts resolve __APP_HOME__ to the install directory. The CDS archive
+// is written by the first run that finds it missing or stale and mapped by every later one.
+tasks.startScripts {
+    defaultJvmOpts = vectorModule + listOf(
+        "-Dorg.lwjgl.librarypath=__APP_HOME__/natives",
+        "-XX:SharedArchiveFile=__APP_HOME__/lib/main.jsa",
+        "-XX:+AutoCreateSharedArchive",
+    )
+    doLast {
+        unixScript.writeText(unixScript.readText().replace("__APP_HOME__", "'\"\$APP_HOME\"'"))
+        windowsScript.writeText(windowsScript.readText().replace("__APP_HOME__", "%APP_HOME%"))
+    }
+}
+
+val installDir = layout.buildDirectory.dir("install/${rootProject.name}")
+val launcherJavaHome = javaToolchains.launcherFor { languageVersion.set(JavaLanguageVersion.of(21)) }
+    .map { it.metadata.installationPath.asFile.absolutePath }
+
+// runs the installed start script once and returns its output
+fun launchInstalled(javaHome: String, javaOpts: String): String {
+    val script = installDir.get().file("bin/${rootProject.name}").asFile
+    val process = ProcessBuilder(script.absolutePath)
+        .redirectErrorStream(true)
+        .apply { environment()["JAVA_HOME"] = javaHome; environment()["JAVA_OPTS"] = javaOpts }
+        .start()
+    val output = process.inputStream.bufferedReader().readText()
+    if (process.waitFor() != 0) throw GradleException("${script.name} failed:\n$output")
+    return output
+}
+
+tasks.register("cdsArchive") {
+    group = "distribution"
+    description = "Trains the AppCDS archive of the installed distribution on the menu and first seconds of play."
+    dependsOn("installDist")
+    val seconds = (findProperty("cds.trainingSeconds") as String?) ?: "5"
+    doLast {
+        installDir.get().file("lib/main.jsa").asFile.delete()
+        launchInstalled(launcherJavaHome.get(), "-Dde.autoStart=true -Dde.quitAfter=$seconds -Dde.profile=false")
+        println("AppCDS archive: " + installDir.get().file("lib/main.jsa").asFile)
+    }
+}
+
+tasks.register("startupTime") {
+    group = "distribution"
+    description = "Measures launch to first frame of the installed distribution, with and without the AppCDS archive."
+    dependsOn("cdsArchive")
+    val launches = ((findProperty("startup.launches") as String?) ?: "5").toInt()
+    doLast {
+        val javaHome = launcherJavaHome.get()
+        val firstFrame = Regex("First frame (\\d+) ms after launch")
+        fun median(javaOpts: String): Long {
+            val times = (1..launches).map {
+                val output = launchInstalled(javaHome, "-Dde.quitAfter=0 -Dde.profile=false $javaOpts")
+                firstFrame.find(output)?.groupValues?.get(1)?.toLong()
+                    ?: throw GradleException("No first-frame line in:\n$output")
+            }.sorted()
+            return times[times.size / 2]
+        }
+        // the JDK's own default CDS archive only vs. the trained app archive
+        val jdkOnly = median("-XX:-AutoCreateSharedArchive -XX:SharedArchiveFile=$javaHome/lib/server/classes.jsa")
+        val withApp = median("")
+        println("Launch to first frame (median of $launches): JDK CDS only $jdkOnly ms, AppCDS $withApp ms")
+    }
+}
+
+// ----------------- Soak -----------------
+// ./gradlew soak --args="--hours 24 --sample-minutes 10"  -> fails if obstacles, heap, allocation or frame time creep up
+tasks.register<JavaExec>("soak") {
+    group = "verification"
+    description = "Runs hours of bot play headless and fails when memory or frame cost drifts."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.copicraftDev.Soak")
+}
+
+// ----------------- Spectators -----------------
+// ./gradlew spectators --args="--clients 64 --slow 2 --seconds 30"  -> loopback clients against a bot game's stream
+tasks.register<JavaExec>("spectators") {
+    group = "verification"
+    description = "Streams a bot game to loopback spectator clients and reports bandwidth and server CPU."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.copicraftDev.SpectatorLoad")
+}
@@ -0,0 +1,63 @@
+package com.copicraftDev;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+// Obstacle half-width animation: a tick over a store where everything has
+// settled (should cost nothing), and a whole convert burst animated until
+// every converted obstacle is asleep again.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AnimateBenchmark {
+
+    @Param({"1000", "100000"})
+    public int obstacleCount;
+
+    private final Smoothing smoothing = new Smoothing();
+    private ObstacleStore settled;
+    private Simulation sim;
+
+    @Setup(Level.Trial)
+    public void createStores() {
+        smoothing.beginTick(1f / 60f);
+        settled = new ObstacleStore(obstacleCount);
+        for (int i = 0; i < obstacleCount; i++) settled.add(i * 5f, 0.06f, 0.06f, 10f);
+        sim = new Simulation(InputSource.NONE, 1L);
+    }
+
+    @Setup(Level.Invocation)
+    public void fillWalls() {
+        sim.obstacles1D().clear();
+        ObstacleStore walls = sim.tunnelObstacles();
+        walls.clear();
+        for (int i = 0; i < obstacleCount; i++) walls.add(i * 5f, 0.1f, 0.1f, 0f);
+    }
+
+    @Benchmark
+    public int settledTick() {
+        settled.animate(smoothing);
+        return settled.animatingCount();
+    }
+
+    @Benchmark
+    public int convertUntilSettled() {
+        sim.convertAllTunnelTo1D();
+        ObstacleStore store = sim.obstacles1D();
+        int ticks = 0;
+        while (store.animatingCount() > 0) {
+            store.animate(smoothing);
+            ticks++;
+        }
+        return ticks;
+    }
+}
@@ -0,0 +1,44 @@
+package com.copicraftDev;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+// convertAllTunnelTo1D with large wall lists (one burst per invocation).
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConvertBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    public int wallCount;
+
+    private Simulation sim;
+
+    @Setup(Level.Trial)
+    public void createSimulation() {
+        sim = new Simulation(InputSource.NONE, 1L);
+    }
+
+    @Setup(Level.Invocation)
+    public void fillWalls() {
+        sim.obstacles1D().clear();
+        ObstacleStore walls = sim.tunnelObstacles();
+        walls.clear();
+        for (int i = 0; i < wallCount; i++) walls.add(i * 5f, 0.1f, 0.1f, 0f);
+    }
+
+    @Benchmark
+    public int convert() {
+        sim.convertAllTunnelTo1D();
+        return sim.obstacles1D().size();
+    }
+}
@@ -0,0 +1,37 @@
+package com.copicraftDev;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+// Input -> velocity -> vertical integration, the part of a tick every frame pays.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MovementBenchmark {
+
+    private static final float DT = 1f / 60f;
+
+    private Simulation sim;
+    private int tick;
+
+    @Setup
+    public void setup() {
+        sim = new Simulation(InputSource.NONE, 1L);
+    }
+
+    @Benchmark
+    public float integrate() {
+        // alternate between accelerating and coasting so friction paths run too
+        int keys = (tick++ & 32) == 0 ? InputSource.RIGHT | InputSource.UP : 0;
+        sim.handleMovementInput(keys, DT);
+        sim.integrateVertical(DT);
+        return sim.getPlayerY();
+    }
+}
@@ -0,0 +1,65 @@
+package com.copicraftDev;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Particle wrap/parallax update, scalar vs Vector API kernel, and the full
+// update + vertex emission into a batch whose sink discards the data, so only
+// the CPU side is measured.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ParticleBenchmark {
+
+    @Param({"120", "10000", "100000"})
+    public int particleCount;
+
+    @Param({"scalar", "simd"})
+    public String kernel;
+
+    private ParticleField particles;
+    private VertexBatch batch;
+    private float cameraX;
+    private float step = 2.8f / 60f; // max player speed, one tick
+
+    @Setup
+    public void setup() {
+        ParticleKernel k = kernel.equals("simd") ? ParticleKernel.vector() : ParticleKernel.SCALAR;
+        if (k == null) throw new IllegalStateException("Vector API not available (--add-modules jdk.incubator.vector)");
+        particles = new ParticleField(particleCount, new Random(1L), k);
+        batch = new VertexBatch(64 * 1024, (primitive, vertices, vertexCount) -> { });
+        cameraX = 0f;
+    }
+
+    private void pan() {
+        // pan back and forth so x stays small and both wrap directions run
+        cameraX += step;
+        if (cameraX > 100f || cameraX < -100f) step = -step;
+    }
+
+    @Benchmark
+    public float update() {
+        pan();
+        particles.update(cameraX);
+        return particles.drawX(0);
+    }
+
+    @Benchmark
+    public int updateAndEmit() {
+        pan();
+        batch.begin();
+        particles.update(cameraX);
+        particles.emit(batch, cameraX);
+        batch.end();
+        return batch.quadCount();
+    }
+}
@@ -0,0 +1,38 @@
+package com.copicraftDev;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+// spawnObstacles1D + pruneOldObstacles as the player advances one spawn slot per call.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SpawnPruneBenchmark {
+
+    private Simulation sim;
+    private float x;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        // fresh world per iteration keeps x (and float precision) in a normal range
+        sim = new Simulation(InputSource.NONE, 1L);
+        x = 0f;
+    }
+
+    @Benchmark
+    public int spawnAndPrune() {
+        x += Tuning.DEFAULT.spawnDistance;
+        sim.placePlayer(x);
+        sim.spawnObstacles1D();
+        sim.pruneOldObstacles();
+        return sim.obstacles1D().size();
+    }
+}
@@ -0,0 +1,52 @@
+package com.copicraftDev;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// One full headless tick (bot input, profiler on) plus the CPU side of particle
+// rendering. The frame path must not allocate: gc.alloc.rate.norm here should
+// stay at ~0 B/op, and jmhCompare fails if it grows.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SteadyStateBenchmark {
+
+    private static final float DT = 1f / 60f;
+    private static final int WARMUP_TICKS = 10_000;
+
+    private Simulation sim;
+    private ParticleField particles;
+    private VertexBatch batch;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        BotInput bot = new BotInput();
+        sim = new Simulation(bot, 1L);
+        bot.attach(sim);
+        sim.setProfiler(new FrameProfiler(true, 1_000_000_000L / 60));
+        particles = new ParticleField(120, new Random(1L));
+        batch = new VertexBatch(64 * 1024, (primitive, vertices, vertexCount) -> { });
+
+        // get past start-up growth (obstacle stores, chunk cache) before measuring
+        for (int i = 0; i < WARMUP_TICKS; i++) sim.step(DT);
+    }
+
+    @Benchmark
+    public int tickAndEmit() {
+        sim.step(DT);
+        batch.begin();
+        particles.update(sim.getCameraX());
+        particles.emit(batch, sim.getCameraX());
+        batch.end();
+        return batch.quadCount();
+    }
+}
@@ -0,0 +1,55 @@
+package com.copicraftDev;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+// Horizontal sweep collision (sweepIntegrateHorizontal's inner work) against
+// stores of increasing size; cost should stay flat thanks to the range query.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SweepBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int obstacleCount;
+
+    private static final float SPACING = Tuning.DEFAULT.spawnDistance;
+    private static final float DX = 2.8f / 60f; // max speed, one tick
+
+    private ObstacleStore store;
+    private float span;
+    private float x;
+
+    @Setup
+    public void setup() {
+        store = new ObstacleStore(obstacleCount);
+        for (int i = 0; i < obstacleCount; i++) {
+            store.add(i * SPACING, Simulation.OBSTACLE_HALF_COLLISION, Simulation.OBSTACLE_HALF_COLLISION, 10f);
+        }
+        span = obstacleCount * SPACING;
+        x = 0f;
+    }
+
+    @Benchmark
+    public float sweepRight() {
+        // walk the player across the whole store so hits and misses both show up
+        x += DX * 0.5f;
+        if (x > span) x = 0f;
+        return Simulation.sweepAgainst(store, Simulation.OBSTACLE_HALF_COLLISION, x, x + DX, DX);
+    }
+
+    @Benchmark
+    public float sweepLeft() {
+        x += DX * 0.5f;
+        if (x > span) x = 0f;
+        return Simulation.sweepAgainst(store, Simulation.OBSTACLE_HALF_COLLISION, x, x - DX, -DX);
+    }
+}
@@ -0,0 +1,49 @@
+package com.copicraftDev;
+
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+
+import java.nio.FloatBuffer;
+
+// GL side of the batch renderer: streams each VertexBatch flush into a single
+// VBO and draws it with client-side vertex/color arrays. The VBO stays bound
+// and the arrays stay enabled between draws; GlState skips re-binding them.
+public final class BatchRenderer implements VertexBatch.Sink {
+
+    private static final int MAX_VERTICES = 64 * 1024;
+
+    private final GlState gl;
+    private final int vbo;
+    private final VertexBatch batch;
+
+    public BatchRenderer(GlState gl) {
+        this.gl = gl;
+        vbo = gl.genBuffer();
+        gl.bindArrayBuffer(vbo);
+        gl.bufferData((long) MAX_VERTICES * VertexBatch.STRIDE_BYTES, GL15.GL_STREAM_DRAW);
+        batch = new VertexBatch(MAX_VERTICES, this);
+    }
+
+    public VertexBatch batch() {
+        return batch;
+    }
+
+    @Override
+    public void draw(VertexBatch.Primitive primitive, FloatBuffer vertices, int vertexCount) {
+        gl.bindArrayBuffer(vbo);
+        // orphan the previous contents so the driver doesn't stall on an in-flight draw
+        gl.bufferData((long) MAX_VERTICES * VertexBatch.STRIDE_BYTES, GL15.GL_STREAM_DRAW);
+        gl.bufferSubData(0, vertices);
+
+        gl.clientArrays(true, true);
+        gl.vertexPointer(2, GL11.GL_FLOAT, VertexBatch.STRIDE_BYTES, 0L);
+        gl.colorPointer(3, GL11.GL_FLOAT, VertexBatch.STRIDE_BYTES, 2L * Float.BYTES);
+
+        int mode = primitive == VertexBatch.Primitive.LINES ? GL11.GL_LINES : GL11.GL_QUADS;
+        gl.drawArrays(mode, 0, vertexCount);
+    }
+
+    public void dispose() {
+        gl.deleteBuffer(vbo);
+    }
+}
@@ -0,0 +1,224 @@
+package com.copicraftDev;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+// Headless tuning sweeps: runs many seeded simulations in parallel for every
+// point of a parameter grid and streams one CSV row per point.
+//
+//   java -cp ... com.copicraftDev.BatchRunner --runs 1000 --ticks 18000 \
+//       --grid spawnChance1D=0.3,0.45,0.6 --grid maxSpeed=2.4,2.8 --out sweep.csv
+//
+// Every run owns its Simulation, input policy and world seed (derived from the
+// run index, no shared Random), so runs share nothing but the immutable Tuning
+// and the same seeds are used for every grid point.
+public final class BatchRunner {
+
+    // input policies
+    private static final String BOT = "bot";       // BotInput
+    private static final String RANDOM = "random"; // seeded random key presses
+    // the game's fixed tick, so a run of N ticks is the same session the game would play
+    private static final float DT = new FrameClock(60, 1).tickSeconds();
+
+    private final int runs;
+    private final int ticks;
+    private final long baseSeed;
+    private final String policy;
+
+    BatchRunner(int runs, int ticks, long baseSeed, String policy) {
+        if (runs <= 0 || ticks <= 0) throw new IllegalArgumentException("runs and ticks must be > 0");
+        if (!policy.equals(BOT) && !policy.equals(RANDOM)) throw new IllegalArgumentException("Unknown policy '" + policy + "'");
+        this.runs = runs;
+        this.ticks = ticks;
+        this.baseSeed = baseSeed;
+        this.policy = policy;
+    }
+
+    // outcome of one run
+    static final class RunStats {
+        final double distance;     // furthest world x reached
+        final long collisions;
+        final long blockedTicks;
+        final long ticks2D;
+        final long ticks;
+
+        RunStats(double distance, long collisions, long blockedTicks, long ticks2D, long ticks) {
+            this.distance = distance;
+            this.collisions = collisions;
+            this.blockedTicks = blockedTicks;
+            this.ticks2D = ticks2D;
+            this.ticks = ticks;
+        }
+    }
+
+    // world seed of run i; same for every grid point so points are compared on the same worlds
+    long seedOf(int run) {
+        long z = baseSeed + (run + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    RunStats runOne(Tuning tuning, int run) {
+        long seed = seedOf(run);
+        Simulation sim;
+        if (policy.equals(BOT)) {
+            BotInput bot = new BotInput();
+            sim = new Simulation(bot, seed, tuning, false);
+            bot.attach(sim);
+        } else {
+            sim = new Simulation(new RandomInput(seed), seed, tuning, false);
+        }
+        double furthest = sim.worldPlayerX();
+        for (int i = 0; i < ticks; i++) {
+            sim.step(DT);
+            furthest = Math.max(furthest, sim.worldPlayerX());
+        }
+        sim.close();
+        return new RunStats(furthest, sim.collisions(), sim.blockedTicks(), sim.ticks2D(), sim.ticks());
+    }
+
+    static String csvHeader() {
+        return Tuning.csvHeader() + ",runs,ticks,distance_mean,distance_p10,distance_p50,distance_p90,"
+                + "collisions_per_min,blocked_share,share_2d";
+    }
+
+    static String csvRow(Tuning tuning, RunStats[] stats) {
+        double[] distance = new double[stats.length];
+        double collisions = 0, blocked = 0, in2D = 0, ticks = 0;
+        for (int i = 0; i < stats.length; i++) {
+            distance[i] = stats[i].distance;
+            collisions += stats[i].collisions;
+            blocked += stats[i].blockedTicks;
+            in2D += stats[i].ticks2D;
+            ticks += stats[i].ticks;
+        }
+        Arrays.sort(distance);
+        double mean = Arrays.stream(distance).sum() / distance.length;
+        double minutes = ticks / 60.0 / 60.0;
+        return String.format(Locale.ROOT, "%s,%d,%d,%.3f,%.3f,%.3f,%.3f,%.3f,%.4f,%.4f",
+                tuning.toCsv(), stats.length, stats[0].ticks, mean,
+                percentile(distance, 0.10), percentile(distance, 0.50), percentile(distance, 0.90),
+                collisions / minutes, blocked / ticks, in2D / ticks);
+    }
+
+    private static double percentile(double[] sorted, double p) {
+        int i = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, i))];
+    }
+
+    // runs every grid point on the pool; rows are written in grid order as soon as a point is done
+    void sweep(List<Tuning> grid, ForkJoinPool pool, PrintWriter out) {
+        List<List<ForkJoinTask<RunStats>>> tasks = new ArrayList<>(grid.size());
+        for (Tuning tuning : grid) {
+            List<ForkJoinTask<RunStats>> point = new ArrayList<>(runs);
+            for (int r = 0; r < runs; r++) {
+                int run = r;
+                point.add(pool.submit(() -> runOne(tuning, run)));
+            }
+            tasks.add(point);
+        }
+
+        out.println(csvHeader());
+        out.flush();
+        for (int g = 0; g < grid.size(); g++) {
+            List<ForkJoinTask<RunStats>> point = tasks.get(g);
+            RunStats[] stats = new RunStats[runs];
+            for (int r = 0; r < runs; r++) stats[r] = point.get(r).join();
+            out.println(csvRow(grid.get(g), stats));
+            out.flush();
+            tasks.set(g, null); // let finished results go
+        }
+    }
+
+    // cross product of "name=v1,v2,..." axes applied to the default tuning
+    static List<Tuning> grid(List<String> axes) {
+        List<Tuning> points = new ArrayList<>();
+        points.add(Tuning.DEFAULT);
+        for (String axis : axes) {
+            int eq = axis.indexOf('=');
+            if (eq <= 0) throw new IllegalArgumentException("Expected name=v1,v2,... but got '" + axis + "'");
+            String name = axis.substring(0, eq);
+            String[] values = axis.substring(eq + 1).split(",");
+            List<Tuning> next = new ArrayList<>(points.size() * values.length);
+            for (Tuning t : points) {
+                for (String v : values) next.add(t.with(name, Float.parseFloat(v.trim())));
+            }
+            points = next;
+        }
+        return points;
+    }
+
+    // Seeded random player: holds a random mix of keys for a random number of
+    // ticks, sometimes toggling the dimension. One generator per run.
+    private static final class RandomInput implements InputSource {
+        private final SplittableRandom random;
+        private int held = RIGHT;
+        private int ticksLeft = 0;
+
+        RandomInput(long seed) {
+            this.random = new SplittableRandom(seed);
+        }
+
+        @Override
+        public int poll() {
+            if (--ticksLeft > 0) return held;
+            ticksLeft = 10 + random.nextInt(110);
+            int roll = random.nextInt(10);
+            held = roll < 7 ? RIGHT : roll < 9 ? LEFT : 0;
+            if (random.nextBoolean()) held |= random.nextBoolean() ? UP : DOWN;
+            return random.nextInt(4) == 0 ? held | TOGGLE : held;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int runs = 1000;
+        int ticks = 60 * 60 * 5; // five minutes of play
+        long seed = 1L;
+        String policy = BOT;
+        int threads = Runtime.getRuntime().availableProcessors();
+        String outFile = null;
+        List<String> axes = new ArrayList<>();
+
+        for (int i = 0; i < args.length; i++) {
+            String a = args[i];
+            if (i + 1 >= args.length) throw new IllegalArgumentException("Missing value for " + a);
+            String v = args[++i];
+            switch (a) {
+                case "--runs": runs = Integer.parseInt(v); break;
+                case "--ticks": ticks = Integer.parseInt(v); break;
+                case "--seed": seed = Long.parseLong(v); break;
+                case "--policy": policy = v; break;
+                case "--threads": threads = Integer.parseInt(v); break;
+                case "--out": outFile = v; break;
+                case "--grid": axes.add(v); break;
+                default: throw new IllegalArgumentException("Unknown option " + a);
+            }
+        }
+
+        BatchRunner runner = new BatchRunner(runs, ticks, seed, policy);
+        List<Tuning> grid = grid(axes);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        try (PrintWriter out = outFile == null
+                ? new PrintWriter(System.out)
+                : new PrintWriter(Files.newBufferedWriter(Path.of(outFile), StandardCharsets.UTF_8))) {
+            runner.sweep(grid, pool, out);
+        } finally {
+            pool.shutdown();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.err.printf(Locale.ROOT, "%d points x %d runs x %d ticks on %d threads in %.1f s (%.0f ticks/s)%n",
+                grid.size(), runs, ticks, threads, seconds, (double) grid.size() * runs * ticks / seconds);
+    }
+}
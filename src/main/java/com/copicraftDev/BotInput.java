@@ -0,0 +1,34 @@
+package com.copicraftDev;
+
+// Scripted player for headless runs: holds right, weaves up and down while
+// the tunnel is open, and flips dimension whenever it stops making progress.
+// Deterministic and allocation-free, so runs with the same seed repeat exactly.
+final class BotInput implements InputSource {
+
+    private static final int CHECK_INTERVAL = 16;   // ticks between progress checks
+    private static final float MIN_PROGRESS = 0.01f;
+
+    private Simulation sim;
+    private int tick = 0;
+    private double lastCheckX = 0.0;
+
+    // must be called before the first step
+    void attach(Simulation sim) {
+        this.sim = sim;
+        this.lastCheckX = sim.worldPlayerX();
+    }
+
+    @Override
+    public int poll() {
+        tick++;
+        int bits = RIGHT;
+        bits |= (tick & 128) == 0 ? UP : DOWN;
+
+        if (tick % CHECK_INTERVAL == 0) {
+            double x = sim.worldPlayerX(); // not the local x, which jumps back when the origin moves
+            if (x - lastCheckX < MIN_PROGRESS) bits |= TOGGLE; // blocked: switch dimension
+            lastCheckX = x;
+        }
+        return bits;
+    }
+}
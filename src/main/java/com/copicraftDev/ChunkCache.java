@@ -0,0 +1,98 @@
+package com.copicraftDev;
+
+// Bounded LRU of generated chunks, owned by the game thread.
+// Chunks normally arrive pre-built from a ChunkPrefetcher; a chunk that isn't
+// ready yet is generated inline so the world stays identical either way.
+final class ChunkCache {
+
+    private final WorldGenerator generator;
+    private final ChunkPrefetcher prefetcher; // null = generate on demand only
+
+    private final long[] keys;
+    private final WorldChunk[] chunks;   // preallocated; refilled in place on inline misses
+    private final boolean[] filled;
+    private final long[] lastUse;
+    private long useClock = 0;
+
+    private long inlineGenerated = 0; // misses the prefetcher didn't cover
+
+    ChunkCache(WorldGenerator generator, int capacity, boolean backgroundPrefetch) {
+        this.generator = generator;
+        this.prefetcher = backgroundPrefetch ? new ChunkPrefetcher(generator) : null;
+        this.keys = new long[capacity];
+        this.chunks = new WorldChunk[capacity];
+        this.filled = new boolean[capacity];
+        this.lastUse = new long[capacity];
+        for (int i = 0; i < capacity; i++) chunks[i] = new WorldChunk(generator.wallSlotsPerChunk());
+    }
+
+    WorldGenerator generator() {
+        return generator;
+    }
+
+    // ask the background thread to get ahead of the given chunk
+    void prefetch(long chunkIndex) {
+        if (prefetcher == null) return;
+        prefetcher.request(chunkIndex);
+        drain();
+    }
+
+    WorldChunk get(long chunkIndex) {
+        drain();
+        int i = find(chunkIndex);
+        if (i >= 0) {
+            lastUse[i] = ++useClock;
+            return chunks[i];
+        }
+        // not prefetched: build it here, reusing the evicted chunk's storage
+        int victim = victim();
+        WorldChunk chunk = generator.generate(chunkIndex, chunks[victim]);
+        inlineGenerated++;
+        store(victim, chunk);
+        return chunk;
+    }
+
+    long inlineGenerated() {
+        return inlineGenerated;
+    }
+
+    void close() {
+        if (prefetcher != null) prefetcher.stop();
+    }
+
+    private void drain() {
+        if (prefetcher == null) return;
+        WorldChunk chunk;
+        while ((chunk = prefetcher.poll()) != null) {
+            if (find(chunk.index) < 0) insert(chunk);
+        }
+    }
+
+    private int find(long chunkIndex) {
+        for (int i = 0; i < chunks.length; i++) {
+            if (filled[i] && keys[i] == chunkIndex) return i;
+        }
+        return -1;
+    }
+
+    private void insert(WorldChunk chunk) {
+        store(victim(), chunk);
+    }
+
+    // an empty slot, else the least recently used one
+    private int victim() {
+        int victim = 0;
+        for (int i = 0; i < chunks.length; i++) {
+            if (!filled[i]) return i;
+            if (lastUse[i] < lastUse[victim]) victim = i;
+        }
+        return victim;
+    }
+
+    private void store(int slot, WorldChunk chunk) {
+        keys[slot] = chunk.index;
+        chunks[slot] = chunk;
+        filled[slot] = true;
+        lastUse[slot] = ++useClock;
+    }
+}
@@ -0,0 +1,82 @@
+package com.copicraftDev;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+// Background thread that builds chunks ahead of the player and hands them to
+// the game thread through a single-producer/single-consumer ring (no locks).
+final class ChunkPrefetcher implements Runnable {
+
+    private static final int RING_SIZE = 64;       // power of two
+    private static final int LOOKAHEAD_CHUNKS = 3; // built beyond the requested chunk
+
+    private final WorldGenerator generator;
+    private final AtomicReferenceArray<WorldChunk> ring = new AtomicReferenceArray<>(RING_SIZE);
+    private final AtomicLong published = new AtomicLong(); // written by the worker
+    private final AtomicLong consumed = new AtomicLong();  // written by the game thread
+
+    private volatile long requested = Long.MIN_VALUE;
+    private volatile boolean running = true;
+    private long lastRequested = Long.MIN_VALUE; // game thread only
+    private final Thread thread;
+
+    ChunkPrefetcher(WorldGenerator generator) {
+        this.generator = generator;
+        this.thread = new Thread(this, "chunk-prefetch");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // game thread: make sure chunks up to chunkIndex + LOOKAHEAD_CHUNKS get built
+    void request(long chunkIndex) {
+        if (chunkIndex == lastRequested) return;
+        lastRequested = chunkIndex;
+        requested = chunkIndex;
+        LockSupport.unpark(thread);
+    }
+
+    // game thread: next finished chunk, or null
+    WorldChunk poll() {
+        long read = consumed.get();
+        if (read == published.get()) return null;
+        int slot = (int) (read & (RING_SIZE - 1));
+        WorldChunk chunk = ring.get(slot);
+        ring.lazySet(slot, null);
+        consumed.lazySet(read + 1);
+        return chunk;
+    }
+
+    void stop() {
+        running = false;
+        LockSupport.unpark(thread);
+    }
+
+    @Override
+    public void run() {
+        long next = Long.MIN_VALUE; // first chunk not yet built
+        while (running) {
+            long want = requested;
+            if (want == Long.MIN_VALUE) {
+                LockSupport.park(this);
+                continue;
+            }
+
+            long c = Math.max(next, want);
+            long last = want + LOOKAHEAD_CHUNKS;
+            boolean ringFull = false;
+            while (running && c <= last && requested == want) {
+                long write = published.get();
+                if (write - consumed.get() >= RING_SIZE) { ringFull = true; break; }
+                ring.set((int) (write & (RING_SIZE - 1)), generator.generate(c));
+                published.lazySet(write + 1);
+                c++;
+            }
+            next = Math.max(next, c);
+
+            if (requested != want) continue;
+            if (ringFull) LockSupport.parkNanos(this, 1_000_000L); // consumer is behind; retry shortly
+            else LockSupport.park(this);                          // caught up; wait for the next request
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.copicraftDev;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+import java.util.Locale;
+
+// GlBackend that draws nothing and counts every call, for checking headless
+// how many GL calls a frame issues (see GlCallReport).
+public final class CountingGlBackend implements GlBackend {
+
+    public enum Call {
+        VIEWPORT, MATRIX_MODE, LOAD_IDENTITY, ORTHO, CLEAR_COLOR, CLEAR, LINE_WIDTH, COLOR,
+        BEGIN, VERTEX, END,
+        GEN_BUFFER, DELETE_BUFFER, BIND_BUFFER, BUFFER_DATA, BUFFER_SUB_DATA,
+        ENABLE_CLIENT_STATE, DISABLE_CLIENT_STATE, VERTEX_POINTER, COLOR_POINTER, DRAW_ARRAYS
+    }
+
+    private static final Call[] CALLS = Call.values();
+
+    private final long[] counts = new long[CALLS.length];
+    private int nextBuffer = 1;
+
+    public long count(Call call) {
+        return counts[call.ordinal()];
+    }
+
+    public long total() {
+        long sum = 0;
+        for (long c : counts) sum += c;
+        return sum;
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0L);
+    }
+
+    // non-zero counts, one "NAME=n" per call type
+    public String summary() {
+        StringBuilder sb = new StringBuilder();
+        for (Call c : CALLS) {
+            long n = counts[c.ordinal()];
+            if (n == 0) continue;
+            if (sb.length() > 0) sb.append(' ');
+            sb.append(c.name().toLowerCase(Locale.ROOT)).append('=').append(n);
+        }
+        return sb.toString();
+    }
+
+    private void hit(Call call) {
+        counts[call.ordinal()]++;
+    }
+
+    @Override public void viewport(int x, int y, int width, int height) { hit(Call.VIEWPORT); }
+    @Override public void matrixMode(int mode) { hit(Call.MATRIX_MODE); }
+    @Override public void loadIdentity() { hit(Call.LOAD_IDENTITY); }
+    @Override public void ortho(double left, double right, double bottom, double top, double near, double far) { hit(Call.ORTHO); }
+    @Override public void clearColor(float r, float g, float b, float a) { hit(Call.CLEAR_COLOR); }
+    @Override public void clear(int mask) { hit(Call.CLEAR); }
+    @Override public void lineWidth(float width) { hit(Call.LINE_WIDTH); }
+    @Override public void color3f(float r, float g, float b) { hit(Call.COLOR); }
+
+    @Override public void begin(int mode) { hit(Call.BEGIN); }
+    @Override public void vertex2f(float x, float y) { hit(Call.VERTEX); }
+    @Override public void end() { hit(Call.END); }
+
+    @Override public int genBuffer() { hit(Call.GEN_BUFFER); return nextBuffer++; }
+    @Override public void deleteBuffer(int buffer) { hit(Call.DELETE_BUFFER); }
+    @Override public void bindBuffer(int target, int buffer) { hit(Call.BIND_BUFFER); }
+    @Override public void bufferData(int target, long size, int usage) { hit(Call.BUFFER_DATA); }
+    @Override public void bufferSubData(int target, long offset, FloatBuffer data) { hit(Call.BUFFER_SUB_DATA); }
+    @Override public void enableClientState(int array) { hit(Call.ENABLE_CLIENT_STATE); }
+    @Override public void disableClientState(int array) { hit(Call.DISABLE_CLIENT_STATE); }
+    @Override public void vertexPointer(int size, int type, int stride, long offset) { hit(Call.VERTEX_POINTER); }
+    @Override public void colorPointer(int size, int type, int stride, long offset) { hit(Call.COLOR_POINTER); }
+    @Override public void drawArrays(int mode, int first, int count) { hit(Call.DRAW_ARRAYS); }
+}
@@ -0,0 +1,146 @@
+package com.copicraftDev;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Gameplay events from the simulation thread to any number of consumers on
+// their own threads. A preallocated ring of fixed-layout records (type, tick,
+// world x, value, arg) in parallel arrays: publishing writes one slot and
+// advances a sequence, so the game thread never allocates, boxes, locks or
+// waits. Each consumer has its own read sequence and takes everything
+// published since its last poll in one batch.
+//
+// The ring is only overwritten once every consumer has read a slot. When the
+// slowest consumer is a whole ring behind, new events are dropped (and
+// counted) instead of stalling the simulation.
+//
+//   EventBus.Consumer c = bus.subscribe();   // before the game starts
+//   c.poll(handler, 256);                    // consumer thread, repeatedly
+final class EventBus {
+
+    // event types
+    static final int COLLISION = 0; // new hit: x = player, value = speed into it
+    static final int TOGGLE = 1;    // H pressed: arg = dimension being switched to (1 or 2)
+    static final int SPAWN = 2;     // obstacle materialized: x, value = half-width, arg = 1 (1D) or 2 (wall)
+    static final int PRUNE = 3;     // obstacles behind the camera dropped: x = cut-off, arg = how many
+    static final int CONVERT = 4;   // walls turned into 1D obstacles on collapse: arg = how many
+    static final int TYPE_COUNT = 5;
+
+    static final String[] TYPE_NAMES = {"collision", "toggle", "spawn", "prune", "convert"};
+
+    // publishes nothing; for simulations nobody listens to
+    static final EventBus OFF = new EventBus(1, false);
+
+    // receives one event at a time, in order; endOfBatch on the last of a poll
+    interface Handler {
+        void onEvent(int type, long tick, double x, float value, int arg, boolean endOfBatch);
+    }
+
+    private final boolean enabled;
+    private final int mask;
+    private final int[] types;
+    private final long[] ticks;
+    private final double[] xs;
+    private final float[] values;
+    private final int[] args;
+
+    // next sequence to write; everything below it is readable
+    private final AtomicLong cursor = new AtomicLong();
+    private volatile Consumer[] consumers = new Consumer[0];
+
+    // producer only
+    private long next = 0;
+    private long cachedMinRead = 0; // slowest consumer as last seen; only re-read when the ring looks full
+    private long dropped = 0;
+
+    EventBus(int capacity) {
+        this(capacity, true);
+    }
+
+    private EventBus(int capacity, boolean enabled) {
+        if (Integer.bitCount(capacity) != 1) throw new IllegalArgumentException("capacity must be a power of two: " + capacity);
+        this.enabled = enabled;
+        this.mask = capacity - 1;
+        this.types = new int[capacity];
+        this.ticks = new long[capacity];
+        this.xs = new double[capacity];
+        this.values = new float[capacity];
+        this.args = new int[capacity];
+    }
+
+    // a consumer that sees everything published from now on
+    synchronized Consumer subscribe() {
+        if (!enabled) throw new IllegalStateException("EventBus.OFF takes no consumers");
+        Consumer c = new Consumer(cursor.get());
+        Consumer[] grown = Arrays.copyOf(consumers, consumers.length + 1);
+        grown[consumers.length] = c;
+        consumers = grown;
+        return c;
+    }
+
+    // producer (one thread): false if there is no consumer or no room
+    boolean publish(int type, long tick, double x, float value, int arg) {
+        Consumer[] cs = consumers;
+        if (cs.length == 0) return false;
+        if (next - cachedMinRead > mask) {
+            cachedMinRead = minRead(cs);
+            if (next - cachedMinRead > mask) {
+                dropped++;
+                return false;
+            }
+        }
+        int i = (int) next & mask;
+        types[i] = type;
+        ticks[i] = tick;
+        xs[i] = x;
+        values[i] = value;
+        args[i] = arg;
+        next++;
+        cursor.setRelease(next); // the record above is visible before the new cursor
+        return true;
+    }
+
+    private static long minRead(Consumer[] cs) {
+        long min = Long.MAX_VALUE;
+        for (Consumer c : cs) min = Math.min(min, c.read.getAcquire());
+        return min;
+    }
+
+    // events that didn't fit; read from the producer thread, or after it stopped
+    long dropped() {
+        return dropped;
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    // one reader's position in the ring; poll from a single thread
+    final class Consumer {
+
+        private final AtomicLong read;
+
+        private Consumer(long from) {
+            this.read = new AtomicLong(from);
+        }
+
+        // hand up to max waiting events to handler; the number handled
+        int poll(Handler handler, int max) {
+            long from = read.get();
+            long available = cursor.getAcquire();
+            long end = Math.min(available, from + max);
+            for (long s = from; s < end; s++) {
+                int i = (int) s & mask;
+                handler.onEvent(types[i], ticks[i], xs[i], values[i], args[i], s == end - 1);
+            }
+            // the slots are free to reuse once read has moved past them
+            read.setRelease(end);
+            return (int) (end - from);
+        }
+
+        // published but not yet polled
+        long backlog() {
+            return cursor.getAcquire() - read.get();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.copicraftDev;
+
+import java.util.Locale;
+import java.util.concurrent.locks.LockSupport;
+
+// Example EventBus consumer: counts events per type on its own thread and
+// prints the totals when stopped. Sound, telemetry or recording would hook in
+// the same way, each with its own subscription and thread.
+final class EventStats implements EventBus.Handler {
+
+    private static final int BATCH = 256;
+    // nothing waiting: check again after this long (events arrive at most once per tick)
+    private static final long IDLE_NANOS = 2_000_000L;
+
+    private final EventBus bus;
+    private final EventBus.Consumer consumer;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    // consumer thread only (read after join)
+    private final long[] counts = new long[EventBus.TYPE_COUNT];
+    private long obstaclesPruned = 0;
+    private long batches = 0;
+
+    EventStats(EventBus bus) {
+        this.bus = bus;
+        this.consumer = bus.subscribe();
+        this.thread = new Thread(this::run, "event-stats");
+        thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    // drain what is left, wait for the thread and print the totals
+    void stop() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.out.println(summary());
+    }
+
+    private void run() {
+        while (running) {
+            if (consumer.poll(this, BATCH) == 0) LockSupport.parkNanos(IDLE_NANOS);
+            else batches++;
+        }
+        while (consumer.poll(this, BATCH) > 0) batches++;
+    }
+
+    @Override
+    public void onEvent(int type, long tick, double x, float value, int arg, boolean endOfBatch) {
+        counts[type]++;
+        if (type == EventBus.PRUNE) obstaclesPruned += arg;
+    }
+
+    String summary() {
+        return String.format(Locale.ROOT, "Events: %d collisions, %d toggles, %d spawns, %d prunes (%d obstacles), %d conversions; %d batches, %d dropped",
+                counts[EventBus.COLLISION], counts[EventBus.TOGGLE], counts[EventBus.SPAWN], counts[EventBus.PRUNE],
+                obstaclesPruned, counts[EventBus.CONVERT], batches, bus.dropped());
+    }
+}
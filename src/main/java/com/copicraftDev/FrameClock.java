@@ -0,0 +1,77 @@
+package com.copicraftDev;
+
+// Fixed-timestep clock: turns wall time into a whole number of simulation
+// ticks per frame plus an interpolation factor for rendering between ticks.
+public class FrameClock {
+
+    private final long tickNanos;
+    private final int maxStepsPerFrame;
+
+    private long lastTime;
+    private long accumulator;
+    private boolean started = false;
+
+    private long droppedNanos = 0; // time thrown away by the catch-up cap
+
+    public FrameClock(int ticksPerSecond, int maxStepsPerFrame) {
+        if (ticksPerSecond <= 0) throw new IllegalArgumentException("ticksPerSecond must be > 0");
+        if (maxStepsPerFrame <= 0) throw new IllegalArgumentException("maxStepsPerFrame must be > 0");
+        this.tickNanos = 1_000_000_000L / ticksPerSecond;
+        this.maxStepsPerFrame = maxStepsPerFrame;
+    }
+
+    // forget accumulated time, e.g. when gameplay starts after the menu
+    public void reset(long nowNanos) {
+        lastTime = nowNanos;
+        accumulator = 0;
+        started = true;
+    }
+
+    // add the time since the previous call and return how many ticks to run now
+    public int advance(long nowNanos) {
+        if (!started) reset(nowNanos);
+
+        long frame = nowNanos - lastTime;
+        lastTime = nowNanos;
+        if (frame < 0) frame = 0;
+        accumulator += frame;
+
+        long steps = accumulator / tickNanos;
+        if (steps > maxStepsPerFrame) {
+            // spiral-of-death guard: run the cap, drop the rest but keep the phase
+            long dropped = (steps - maxStepsPerFrame) * tickNanos;
+            droppedNanos += dropped;
+            accumulator -= dropped;
+            steps = maxStepsPerFrame;
+        }
+        accumulator -= steps * tickNanos;
+        return (int) steps;
+    }
+
+    // 0..1 position of the current frame between the last two ticks
+    public float alpha() {
+        return (float) ((double) accumulator / tickNanos);
+    }
+
+    // time left until the next tick is due, as of the last advance()
+    public long nanosUntilNextTick() {
+        return tickNanos - accumulator;
+    }
+
+    // System.nanoTime() at which the latest tick was due
+    public long lastTickTime() {
+        return lastTime - accumulator;
+    }
+
+    public float tickSeconds() {
+        return tickNanos / 1_000_000_000f;
+    }
+
+    public long tickNanos() {
+        return tickNanos;
+    }
+
+    public long droppedNanos() {
+        return droppedNanos;
+    }
+}
@@ -0,0 +1,68 @@
+package com.copicraftDev;
+
+import java.util.concurrent.locks.LockSupport;
+
+// Presentation pacing. VSYNC lets the driver block in swap, UNCAPPED runs
+// flat out (to measure real frame cost), LIMITED paces to a target rate with
+// a coarse sleep followed by a short spin for the last stretch.
+public class FrameLimiter {
+
+    public enum Mode { UNCAPPED, VSYNC, LIMITED }
+
+    // sleeping is only trusted up to this close to the deadline
+    private static final long SPIN_THRESHOLD_NANOS = 2_000_000L;
+
+    private final Mode mode;
+    private final long periodNanos;
+    private long nextDeadline = 0;
+
+    public FrameLimiter(Mode mode, int fpsLimit) {
+        this.mode = mode;
+        this.periodNanos = fpsLimit > 0 ? 1_000_000_000L / fpsLimit : 0;
+    }
+
+    // mode from -Dde.frameMode=uncapped|vsync|limited, limit from -Dde.fpsLimit (default 60)
+    public static FrameLimiter fromSystemProperties() {
+        String name = System.getProperty("de.frameMode", "vsync");
+        Mode mode;
+        try {
+            mode = Mode.valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.out.println("Unknown frame mode '" + name + "', using vsync");
+            mode = Mode.VSYNC;
+        }
+        int fps = Integer.getInteger("de.fpsLimit", 60);
+        return new FrameLimiter(mode, fps);
+    }
+
+    public Mode mode() {
+        return mode;
+    }
+
+    public int swapInterval() {
+        return mode == Mode.VSYNC ? 1 : 0;
+    }
+
+    // call once per frame after presenting
+    public void sync() {
+        if (mode != Mode.LIMITED || periodNanos == 0) return;
+
+        long now = System.nanoTime();
+        if (nextDeadline == 0) nextDeadline = now;
+        nextDeadline += periodNanos;
+
+        long remaining = nextDeadline - now;
+        if (remaining <= 0) {
+            // already late: don't try to catch up with a burst of short frames
+            nextDeadline = now;
+            return;
+        }
+
+        if (remaining > SPIN_THRESHOLD_NANOS) {
+            LockSupport.parkNanos(remaining - SPIN_THRESHOLD_NANOS);
+        }
+        while (System.nanoTime() < nextDeadline) {
+            Thread.onSpinWait();
+        }
+    }
+}
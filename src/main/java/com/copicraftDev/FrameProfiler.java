@@ -0,0 +1,223 @@
+package com.copicraftDev;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+// Per-phase frame timing. Phases are measured as System.nanoTime() laps and
+// recorded into preallocated histograms, so it is cheap enough to stay on.
+//
+//   long t = profiler.start();
+//   ... work ...
+//   t = profiler.lap(FrameProfiler.SWEEP, t);
+//
+// Threading: a FrameProfiler is not synchronized and belongs to one thread,
+// which is the only one to record into, read or reset it. The game's
+// simulation thread records the tick phases (INPUT..TICKS) into its own
+// profiler (forOtherThread) and publishes their percentiles with each
+// RenderState for the overlay; once that thread has stopped, merge() adds its
+// samples to the GL thread's profiler for the dump.
+public final class FrameProfiler {
+
+    // simulation tick phases
+    public static final int INPUT = 0;
+    public static final int TUNNEL = 1;
+    public static final int PUSH = 2;
+    public static final int SWEEP = 3;
+    public static final int VERTICAL = 4;
+    public static final int SPAWN = 5;
+    public static final int OBSTACLES = 6;
+    public static final int PRUNE = 7;
+    public static final int CAMERA = 8;
+    // frame phases
+    public static final int TICKS = 9;   // one simulation tick (on the simulation thread)
+    public static final int RENDER = 10; // CPU side of Game.render
+    public static final int SWAP = 11;   // glfwSwapBuffers (+ vsync wait)
+    public static final int FRAME = 12;  // whole frame, loop top to loop top
+    public static final int PHASE_COUNT = 13;
+
+    static final String[] PHASE_NAMES = {
+            "input", "tunnel", "push", "sweep", "vertical", "spawn", "obstacles", "prune", "camera",
+            "ticks", "render", "swap", "frame"
+    };
+
+    // does nothing; for headless runs that don't care
+    public static final FrameProfiler OFF = new FrameProfiler(false, 0L);
+
+    private final boolean enabled;
+    private final long frameBudgetNanos;
+    private final Histogram[] phases = new Histogram[PHASE_COUNT];
+    private long overBudgetFrames = 0;
+
+    // frames of the first second of play, kept apart to show start-up stutter
+    private static final long FIRST_SECOND_NANOS = 1_000_000_000L;
+    private final Histogram firstSecond = new Histogram();
+    private long firstSecondOverBudget = 0;
+    private long firstSecondEnd = 0L;
+    private boolean inFirstSecond = false;
+
+    public FrameProfiler(boolean enabled, long frameBudgetNanos) {
+        this.enabled = enabled;
+        this.frameBudgetNanos = frameBudgetNanos;
+        for (int i = 0; i < PHASE_COUNT; i++) phases[i] = new Histogram();
+    }
+
+    // enabled unless -Dde.profile=false; budget is one 60 Hz frame
+    public static FrameProfiler fromSystemProperties() {
+        boolean on = Boolean.parseBoolean(System.getProperty("de.profile", "true"));
+        return new FrameProfiler(on, 1_000_000_000L / 60);
+    }
+
+    // an empty profiler with the same settings, for another thread to record into
+    public FrameProfiler forOtherThread() {
+        return new FrameProfiler(enabled, frameBudgetNanos);
+    }
+
+    // phases that run on the simulation thread in the game
+    static boolean isTickPhase(int phase) {
+        return phase <= TICKS;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long start() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    // record now - since under phase and return now (start of the next phase)
+    public long lap(int phase, long since) {
+        if (!enabled) return 0L;
+        long now = System.nanoTime();
+        phases[phase].record(now - since);
+        return now;
+    }
+
+    // whole-frame duration; also counts frames that missed the budget
+    public void frame(long nanos) {
+        if (!enabled) return;
+        phases[FRAME].record(nanos);
+        if (nanos > frameBudgetNanos) overBudgetFrames++;
+        if (inFirstSecond) firstSecondFrame(nanos);
+    }
+
+    // the game just started: the frames of the next second also go to the first-second stats
+    public void gameplayStarted() {
+        if (!enabled) return;
+        firstSecond.reset();
+        firstSecondOverBudget = 0;
+        firstSecondEnd = System.nanoTime() + FIRST_SECOND_NANOS;
+        inFirstSecond = true;
+    }
+
+    private void firstSecondFrame(long nanos) {
+        if (System.nanoTime() - firstSecondEnd > 0) {
+            inFirstSecond = false;
+            System.out.printf(Locale.ROOT, "First second of play: %d frames, p50 %.2f ms, p99 %.2f ms, max %.2f ms, %d over budget%n",
+                    firstSecond.count(), millis(firstSecond.percentile(0.50)), millis(firstSecond.percentile(0.99)),
+                    millis(firstSecond.max()), firstSecondOverBudget);
+            return;
+        }
+        firstSecond.record(nanos);
+        if (nanos > frameBudgetNanos) firstSecondOverBudget++;
+    }
+
+    // p50 and p99 of every phase into the given arrays (PHASE_COUNT long)
+    void percentiles(long[] p50, long[] p99) {
+        for (int i = 0; i < PHASE_COUNT; i++) {
+            p50[i] = phases[i].percentile(0.50);
+            p99[i] = phases[i].percentile(0.99);
+        }
+    }
+
+    // add the samples of a profiler whose thread has stopped (see the class comment)
+    public void merge(FrameProfiler other) {
+        if (!enabled) return;
+        for (int i = 0; i < PHASE_COUNT; i++) phases[i].merge(other.phases[i]);
+        overBudgetFrames += other.overBudgetFrames;
+    }
+
+    Histogram phase(int phase) {
+        return phases[phase];
+    }
+
+    public long overBudgetFrames() {
+        return overBudgetFrames;
+    }
+
+    public long frameBudgetNanos() {
+        return frameBudgetNanos;
+    }
+
+    public void reset() {
+        for (Histogram h : phases) h.reset();
+        overBudgetFrames = 0;
+        firstSecond.reset();
+        firstSecondOverBudget = 0;
+        inFirstSecond = false;
+    }
+
+    // ---- reports (not on the frame path) ----
+
+    public void writeCsv(Path file) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            out.println("phase,count,mean_us,p50_us,p99_us,max_us");
+            for (int i = 0; i < PHASE_COUNT; i++) {
+                Histogram h = phases[i];
+                out.printf(Locale.ROOT, "%s,%d,%.3f,%.3f,%.3f,%.3f%n", PHASE_NAMES[i], h.count(),
+                        micros(h.mean()), micros(h.percentile(0.50)), micros(h.percentile(0.99)), micros(h.max()));
+            }
+            Histogram f = firstSecond;
+            out.printf(Locale.ROOT, "first_second_frame,%d,%.3f,%.3f,%.3f,%.3f%n", f.count(),
+                    micros(f.mean()), micros(f.percentile(0.50)), micros(f.percentile(0.99)), micros(f.max()));
+        }
+    }
+
+    public void writeJson(Path file) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            out.println("{");
+            out.printf(Locale.ROOT, "  \"frameBudgetUs\": %.3f,%n", micros(frameBudgetNanos));
+            out.printf("  \"frames\": %d,%n", phases[FRAME].count());
+            out.printf("  \"overBudgetFrames\": %d,%n", overBudgetFrames);
+            Histogram f = firstSecond;
+            out.printf(Locale.ROOT,
+                    "  \"firstSecond\": {\"frames\": %d, \"overBudgetFrames\": %d, \"p50Us\": %.3f, \"p99Us\": %.3f, \"maxUs\": %.3f},%n",
+                    f.count(), firstSecondOverBudget, micros(f.percentile(0.50)), micros(f.percentile(0.99)), micros(f.max()));
+            out.println("  \"phases\": {");
+            for (int i = 0; i < PHASE_COUNT; i++) {
+                Histogram h = phases[i];
+                out.printf(Locale.ROOT,
+                        "    \"%s\": {\"count\": %d, \"meanUs\": %.3f, \"p50Us\": %.3f, \"p99Us\": %.3f, \"maxUs\": %.3f}%s%n",
+                        PHASE_NAMES[i], h.count(), micros(h.mean()), micros(h.percentile(0.50)),
+                        micros(h.percentile(0.99)), micros(h.max()), i + 1 < PHASE_COUNT ? "," : "");
+            }
+            out.println("  }");
+            out.println("}");
+        }
+    }
+
+    // writes <prefix>.json and <prefix>.csv; prefix from -Dde.profileOut (default frame-profile)
+    public void dump() {
+        if (!enabled) return;
+        String prefix = System.getProperty("de.profileOut", "frame-profile");
+        try {
+            writeJson(Path.of(prefix + ".json"));
+            writeCsv(Path.of(prefix + ".csv"));
+            System.out.println("Frame profile written to " + prefix + ".json/.csv");
+        } catch (IOException e) {
+            System.out.println("Could not write frame profile: " + e.getMessage());
+        }
+    }
+
+    private static double micros(long nanos) {
+        return nanos / 1000.0;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
@@ -0,0 +1,143 @@
+package com.copicraftDev;
+
+import org.lwjgl.opengl.GL11;
+
+import java.util.Random;
+
+// Draws RenderStates: background particles, tunnel, obstacles, player and
+// the profiler overlay, all appended to one batch. It doesn't care where a
+// state comes from, so a local game (Game), a spectator stream (Main) and
+// the headless tools (Warmup, Soak, GlCallReport) all draw through it without
+// a simulation of their own.
+final class GameRenderer {
+
+    private final GlState gl;
+    private final BatchRenderer renderer;
+    private final FrameProfiler profiler;
+    private final ProfilerOverlay overlay = new ProfilerOverlay();
+
+    // Particles (-Dde.particles sets the count), laid out around this origin (see Simulation)
+    private final ParticleField particles;
+    private double particleOriginX = 0.0;
+
+    // set by setQuality (see QualityGovernor)
+    private int particleUpdateEvery = 1;
+    private int framesSinceParticleUpdate = 0;
+    private boolean particlesStale = true;
+    private boolean drawBorders = true;
+
+    // needs the GL context to be current
+    GameRenderer(GlState gl, FrameProfiler profiler) {
+        this.gl = gl;
+        this.profiler = profiler;
+        this.renderer = new BatchRenderer(gl);
+        this.particles = new ParticleField(ParticleField.countFromSystemProperties(), new Random());
+    }
+
+    void toggleProfilerOverlay() {
+        overlay.toggle();
+    }
+
+    // fewer particles, updated less often, no tunnel outline: cheaper frames on slow machines
+    void setQuality(QualityGovernor.Level level) {
+        particles.setActive(Math.round(particles.count() * level.particleShare));
+        particleUpdateEvery = level.particleUpdateEvery;
+        drawBorders = level.borders;
+        particlesStale = true;
+    }
+
+    void dispose() {
+        renderer.dispose();
+    }
+
+    // draw a state, blended between its two ticks by the time now
+    void renderFrame(RenderState state, long now) {
+        float alpha = state.alpha(now);
+        float cameraX = state.lerpCameraX(alpha);
+        float tunnelHeight = state.lerpTunnelHeight(alpha);
+        if (state.originX != particleOriginX) {
+            // the simulation moved its origin: move the layers with it so the parallax doesn't jump
+            particles.rebase((float) (state.originX - particleOriginX));
+            particleOriginX = state.originX;
+            particlesStale = true;
+        }
+
+        gl.ortho2D(cameraX - 1.0, cameraX + 1.0, -1.0, 1.0, -1.0, 1.0);
+
+        gl.clearColor(0.82f, 0.82f, 0.82f, 1f);
+        gl.clear(GL11.GL_COLOR_BUFFER_BIT);
+        gl.lineWidth(2f);
+
+        // everything below is appended to one batch and drawn in a few calls
+        VertexBatch batch = renderer.batch();
+        batch.begin();
+
+        // in between updates the dots keep last frame's positions and just scroll with the world
+        if (particlesStale || ++framesSinceParticleUpdate >= particleUpdateEvery) {
+            particles.update(cameraX);
+            framesSinceParticleUpdate = 0;
+            particlesStale = false;
+        }
+        particles.emit(batch, cameraX);
+        drawTunnel(batch, cameraX, tunnelHeight);
+        if (drawBorders) drawTunnelBorder(batch, cameraX, tunnelHeight);
+
+        // the simulation thread already cut these down to what can be on screen
+        drawObstacles1D(batch, state.obstacles1D);
+        drawTunnelObstacles(batch, state.walls, tunnelHeight);
+
+        drawPlayer(batch, state.lerpPlayerX(alpha), state.lerpPlayerY(alpha));
+
+        overlay.emit(batch, profiler, state, cameraX - 0.98f, 0.98f);
+
+        batch.end();
+    }
+
+    private void drawObstacles1D(VertexBatch batch, RenderState.Obstacles obstacles) {
+        float yBottom = -Simulation.OBSTACLE_HEIGHT / 2f;
+        float yTop = Simulation.OBSTACLE_HEIGHT / 2f;
+
+        batch.color(0.2f, 0.2f, 0.2f);
+        for (int i = 0; i < obstacles.count; i++) {
+            float x = obstacles.x[i];
+            float halfW = obstacles.halfW[i];
+            batch.quad(x - halfW, yBottom, x + halfW, yTop);
+        }
+    }
+
+    private void drawTunnelObstacles(VertexBatch batch, RenderState.Obstacles obstacles, float tunnelHeight) {
+        float h = tunnelHeight / 2f;
+        batch.color(0.25f, 0.25f, 0.25f);
+        for (int i = 0; i < obstacles.count; i++) {
+            float x = obstacles.x[i];
+            float halfThickness = obstacles.halfW[i];
+            batch.quad(x - halfThickness, -h, x + halfThickness, h);
+        }
+    }
+
+    private void drawTunnel(VertexBatch batch, float cameraX, float tunnelHeight) {
+        float left = cameraX - 1f;
+        float right = cameraX + 1f;
+        float bottom = -tunnelHeight / 2f;
+        float top = tunnelHeight / 2f;
+
+        batch.color(0f, 0f, 0f); // black tunnel
+        batch.quad(left, bottom, right, top);
+    }
+
+    private void drawTunnelBorder(VertexBatch batch, float cameraX, float tunnelHeight) {
+        float left = cameraX - 1f;
+        float right = cameraX + 1f;
+        float bottom = -tunnelHeight / 2f;
+        float top = tunnelHeight / 2f;
+
+        batch.color(0.3f, 0.3f, 0.3f);
+        batch.rectOutline(left, bottom, right, top);
+    }
+
+    private void drawPlayer(VertexBatch batch, float playerX, float playerY) {
+        batch.color(1f, 0.6f, 0.2f);
+        batch.quad(playerX - Simulation.PLAYER_HALF_W, playerY - Simulation.PLAYER_HALF_H,
+                playerX + Simulation.PLAYER_HALF_W, playerY + Simulation.PLAYER_HALF_H);
+    }
+}
@@ -0,0 +1,37 @@
+package com.copicraftDev;
+
+import java.nio.FloatBuffer;
+
+// The raw GL calls the game makes, one method per GL entry point. GlState
+// sits on top and filters out calls that wouldn't change anything;
+// LwjglGlBackend forwards to the driver and CountingGlBackend only counts,
+// so a frame can be "rendered" headless to see what it would issue.
+public interface GlBackend {
+
+    // fixed-function state
+    void viewport(int x, int y, int width, int height);
+    void matrixMode(int mode);
+    void loadIdentity();
+    void ortho(double left, double right, double bottom, double top, double near, double far);
+    void clearColor(float r, float g, float b, float a);
+    void clear(int mask);
+    void lineWidth(float width);
+    void color3f(float r, float g, float b);
+
+    // immediate mode (menu)
+    void begin(int mode);
+    void vertex2f(float x, float y);
+    void end();
+
+    // vertex buffers / client arrays (BatchRenderer)
+    int genBuffer();
+    void deleteBuffer(int buffer);
+    void bindBuffer(int target, int buffer);
+    void bufferData(int target, long size, int usage);
+    void bufferSubData(int target, long offset, FloatBuffer data);
+    void enableClientState(int array);
+    void disableClientState(int array);
+    void vertexPointer(int size, int type, int stride, long offset);
+    void colorPointer(int size, int type, int stride, long offset);
+    void drawArrays(int mode, int first, int count);
+}
@@ -0,0 +1,70 @@
+package com.copicraftDev;
+
+import java.util.Locale;
+
+// Renders game frames headless against a CountingGlBackend and reports how
+// many GL calls a frame issues once the state cache is warm. A simulation held
+// to the right is stepped inline, one tick per frame, so the camera moves and
+// obstacles come and go like in play:
+//
+//   java -cp ... com.copicraftDev.GlCallReport --frames 600 --max-calls 16
+//
+// Exits with status 1 when any frame goes over --max-calls, so a change that
+// brings back redundant state calls shows up without a GPU.
+public final class GlCallReport {
+
+    public static void main(String[] args) {
+        int frames = 600;
+        long maxCalls = Long.MAX_VALUE;
+        long seed = 1L;
+        for (int i = 0; i < args.length; i++) {
+            String a = args[i];
+            if (i + 1 >= args.length) throw new IllegalArgumentException("Missing value for " + a);
+            String v = args[++i];
+            switch (a) {
+                case "--frames": frames = Integer.parseInt(v); break;
+                case "--max-calls": maxCalls = Long.parseLong(v); break;
+                case "--seed": seed = Long.parseLong(v); break;
+                default: throw new IllegalArgumentException("Unknown option " + a);
+            }
+        }
+
+        CountingGlBackend counter = new CountingGlBackend();
+        GlState gl = new GlState(counter);
+        gl.viewport(0, 0, 800, 600);
+        FrameClock clock = new FrameClock(60, 1);
+        Simulation sim = new Simulation(() -> InputSource.RIGHT, seed, false);
+        GameRenderer renderer = new GameRenderer(gl, FrameProfiler.fromSystemProperties());
+        RenderState state = new RenderState();
+
+        // the first frame sets up everything; count from the second on
+        frame(sim, state, renderer, clock);
+        System.out.println("first frame: " + counter.total() + " calls (" + counter.summary() + ")");
+        counter.reset();
+
+        long worst = 0;
+        long previousTotal = 0;
+        for (int f = 0; f < frames; f++) {
+            frame(sim, state, renderer, clock);
+            worst = Math.max(worst, counter.total() - previousTotal);
+            previousTotal = counter.total();
+        }
+
+        System.out.printf(Locale.ROOT, "%d frames: %.2f calls/frame on average, %d at most%n",
+                frames, counter.total() / (double) frames, worst);
+        System.out.println("per call: " + counter.summary());
+        renderer.dispose();
+        sim.close();
+        if (worst > maxCalls) {
+            System.out.println("Over budget: a frame issued " + worst + " calls, limit is " + maxCalls);
+            System.exit(1);
+        }
+    }
+
+    static void frame(Simulation sim, RenderState state, GameRenderer renderer, FrameClock clock) {
+        sim.step(clock.tickSeconds());
+        long now = System.nanoTime();
+        state.capture(sim, now, clock.tickNanos());
+        renderer.renderFrame(state, now);
+    }
+}
@@ -0,0 +1,205 @@
+package com.copicraftDev;
+
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+
+import java.nio.FloatBuffer;
+
+// Thin GL facade that remembers the state it last set (viewport, projection
+// and modelview, clear color, line width, color, bound buffer, enabled client
+// arrays) and drops calls that wouldn't change anything. It assumes it is the
+// only thing changing that state on the context; call invalidate() after
+// anything else does.
+//
+// Matrices are only tracked for what the game uses: an orthographic
+// projection and an identity modelview.
+public final class GlState {
+
+    private final GlBackend gl;
+
+    private int viewportX, viewportY, viewportW, viewportH;
+    private int matrixMode;
+    private boolean projectionKnown;
+    private double orthoLeft, orthoRight, orthoBottom, orthoTop, orthoNear, orthoFar;
+    private boolean modelviewIdentity;
+    private float clearR, clearG, clearB, clearA;
+    private float lineWidth;
+    private float colorR, colorG, colorB;
+    private int arrayBuffer;
+    private int vertexArray, colorArray; // 1 enabled, 0 disabled, -1 unknown
+    // array pointers: the buffer they were set against (-1 unknown) and their layout
+    private int vertexPointerBuffer, vertexPointerSize, vertexPointerType, vertexPointerStride;
+    private long vertexPointerOffset;
+    private int colorPointerBuffer, colorPointerSize, colorPointerType, colorPointerStride;
+    private long colorPointerOffset;
+
+    public GlState(GlBackend gl) {
+        this.gl = gl;
+        invalidate();
+    }
+
+    public GlBackend backend() {
+        return gl;
+    }
+
+    // forget everything; the next call of each kind goes through
+    // (NaN and -1 never compare equal to a real value)
+    public void invalidate() {
+        viewportW = -1;
+        matrixMode = -1;
+        projectionKnown = false;
+        modelviewIdentity = false;
+        clearR = Float.NaN;
+        lineWidth = Float.NaN;
+        colorR = Float.NaN;
+        arrayBuffer = -1;
+        vertexArray = -1;
+        colorArray = -1;
+        vertexPointerBuffer = -1;
+        colorPointerBuffer = -1;
+    }
+
+    public void viewport(int x, int y, int width, int height) {
+        if (x == viewportX && y == viewportY && width == viewportW && height == viewportH) return;
+        gl.viewport(x, y, width, height);
+        viewportX = x;
+        viewportY = y;
+        viewportW = width;
+        viewportH = height;
+    }
+
+    // projection = glOrtho(...) on identity; modelview = identity
+    public void ortho2D(double left, double right, double bottom, double top, double near, double far) {
+        if (!projectionKnown || left != orthoLeft || right != orthoRight || bottom != orthoBottom
+                || top != orthoTop || near != orthoNear || far != orthoFar) {
+            matrixMode(GL11.GL_PROJECTION);
+            gl.loadIdentity();
+            gl.ortho(left, right, bottom, top, near, far);
+            orthoLeft = left;
+            orthoRight = right;
+            orthoBottom = bottom;
+            orthoTop = top;
+            orthoNear = near;
+            orthoFar = far;
+            projectionKnown = true;
+        }
+        if (!modelviewIdentity) {
+            matrixMode(GL11.GL_MODELVIEW);
+            gl.loadIdentity();
+            modelviewIdentity = true;
+        }
+    }
+
+    private void matrixMode(int mode) {
+        if (mode == matrixMode) return;
+        gl.matrixMode(mode);
+        matrixMode = mode;
+    }
+
+    public void clearColor(float r, float g, float b, float a) {
+        if (r == clearR && g == clearG && b == clearB && a == clearA) return;
+        gl.clearColor(r, g, b, a);
+        clearR = r;
+        clearG = g;
+        clearB = b;
+        clearA = a;
+    }
+
+    public void clear(int mask) {
+        gl.clear(mask);
+    }
+
+    public void lineWidth(float width) {
+        if (width == lineWidth) return;
+        gl.lineWidth(width);
+        lineWidth = width;
+    }
+
+    public void color(float r, float g, float b) {
+        if (r == colorR && g == colorG && b == colorB) return;
+        gl.color3f(r, g, b);
+        colorR = r;
+        colorG = g;
+        colorB = b;
+    }
+
+    // ---- immediate mode ----
+
+    public void begin(int mode) { gl.begin(mode); }
+    public void vertex(float x, float y) { gl.vertex2f(x, y); }
+    public void end() { gl.end(); }
+
+    // ---- buffers / client arrays ----
+
+    public int genBuffer() {
+        return gl.genBuffer();
+    }
+
+    public void deleteBuffer(int buffer) {
+        // deleting a bound buffer unbinds it; pointers into it are dead either way
+        if (buffer == arrayBuffer) arrayBuffer = 0;
+        if (buffer == vertexPointerBuffer) vertexPointerBuffer = -1;
+        if (buffer == colorPointerBuffer) colorPointerBuffer = -1;
+        gl.deleteBuffer(buffer);
+    }
+
+    public void bindArrayBuffer(int buffer) {
+        if (buffer == arrayBuffer) return;
+        gl.bindBuffer(GL15.GL_ARRAY_BUFFER, buffer);
+        arrayBuffer = buffer;
+    }
+
+    public void bufferData(long size, int usage) {
+        gl.bufferData(GL15.GL_ARRAY_BUFFER, size, usage);
+    }
+
+    public void bufferSubData(long offset, FloatBuffer data) {
+        gl.bufferSubData(GL15.GL_ARRAY_BUFFER, offset, data);
+    }
+
+    // enable/disable the vertex and color client arrays
+    public void clientArrays(boolean vertex, boolean color) {
+        int v = vertex ? 1 : 0;
+        if (v != vertexArray) {
+            if (vertex) gl.enableClientState(GL11.GL_VERTEX_ARRAY);
+            else gl.disableClientState(GL11.GL_VERTEX_ARRAY);
+            vertexArray = v;
+        }
+        int c = color ? 1 : 0;
+        if (c != colorArray) {
+            if (color) gl.enableClientState(GL11.GL_COLOR_ARRAY);
+            else gl.disableClientState(GL11.GL_COLOR_ARRAY);
+            colorArray = c;
+        }
+    }
+
+    // pointers capture the buffer bound when they are set, so they only need setting again
+    // when the binding or the layout changes
+    public void vertexPointer(int size, int type, int stride, long offset) {
+        if (arrayBuffer != -1 && vertexPointerBuffer == arrayBuffer && vertexPointerSize == size
+                && vertexPointerType == type && vertexPointerStride == stride && vertexPointerOffset == offset) return;
+        gl.vertexPointer(size, type, stride, offset);
+        vertexPointerBuffer = arrayBuffer;
+        vertexPointerSize = size;
+        vertexPointerType = type;
+        vertexPointerStride = stride;
+        vertexPointerOffset = offset;
+    }
+
+    public void colorPointer(int size, int type, int stride, long offset) {
+        if (arrayBuffer != -1 && colorPointerBuffer == arrayBuffer && colorPointerSize == size
+                && colorPointerType == type && colorPointerStride == stride && colorPointerOffset == offset) return;
+        gl.colorPointer(size, type, stride, offset);
+        colorPointerBuffer = arrayBuffer;
+        colorPointerSize = size;
+        colorPointerType = type;
+        colorPointerStride = stride;
+        colorPointerOffset = offset;
+    }
+
+    public void drawArrays(int mode, int first, int count) {
+        gl.drawArrays(mode, first, count);
+        // the current color is undefined after drawing from a color array
+        if (colorArray != 0) colorR = Float.NaN;
+    }
+}
@@ -0,0 +1,76 @@
+package com.copicraftDev;
+
+import java.util.Arrays;
+
+// Fixed-bucket log-linear histogram of nanosecond durations.
+// Each power of two is split into 16 buckets (~6% resolution); all storage
+// is allocated up front so recording never allocates.
+final class Histogram {
+
+    private static final int SUB_BITS = 4;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int GROUPS = 40; // up to ~2^43 ns, far more than any frame
+    static final int BUCKETS = GROUPS * SUB_COUNT;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count = 0;
+    private long max = 0;
+    private long sum = 0;
+
+    void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        counts[bucketOf(nanos)]++;
+        count++;
+        sum += nanos;
+        if (nanos > max) max = nanos;
+    }
+
+    void reset() {
+        Arrays.fill(counts, 0L);
+        count = 0;
+        max = 0;
+        sum = 0;
+    }
+
+    // add another histogram's samples; neither may be recorded into meanwhile
+    void merge(Histogram other) {
+        for (int i = 0; i < BUCKETS; i++) counts[i] += other.counts[i];
+        count += other.count;
+        sum += other.sum;
+        if (other.max > max) max = other.max;
+    }
+
+    long count() { return count; }
+    long max() { return max; }
+    long mean() { return count == 0 ? 0 : sum / count; }
+
+    // upper bound of the bucket holding the p-th fraction (0..1) of samples
+    long percentile(double p) {
+        if (count == 0) return 0;
+        long target = (long) Math.ceil(p * count);
+        if (target < 1) target = 1;
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= target) return Math.min(upperBound(i), max);
+        }
+        return max;
+    }
+
+    static int bucketOf(long v) {
+        if (v < SUB_COUNT) return (int) v;
+        int exp = 63 - Long.numberOfLeadingZeros(v);
+        int group = exp - SUB_BITS + 1;
+        if (group >= GROUPS) return BUCKETS - 1;
+        int sub = (int) (v >>> (exp - SUB_BITS)) & (SUB_COUNT - 1);
+        return group * SUB_COUNT + sub;
+    }
+
+    static long upperBound(int bucket) {
+        int group = bucket >>> SUB_BITS;
+        int sub = bucket & (SUB_COUNT - 1);
+        if (group == 0) return sub;
+        long width = 1L << (group - 1);
+        return ((SUB_COUNT + sub) * width) + width - 1;
+    }
+}
@@ -0,0 +1,105 @@
+package com.copicraftDev;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Records the per-tick input snapshots of a session so it can be replayed
+// headless (see Replay). Wraps the real InputSource and passes every snapshot
+// through unchanged.
+//
+// File layout (big-endian, append-only):
+//   header   int magic 'DXRC', int version, int ticksPerSecond, long seed
+//   body     one byte per tick: the InputSource bits
+//   trailer  long tickCount, long Simulation.stateChecksum(), int magic 'DXEN'
+// The trailer is only written by finish(); a recording without one (crash,
+// kill) still replays, just without the final check.
+final class InputRecorder implements InputSource {
+
+    static final int MAGIC = 0x44585243;     // "DXRC"
+    static final int END_MAGIC = 0x4458454E; // "DXEN"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 20;
+    static final int TRAILER_BYTES = 20;
+
+    private static final int BUFFER_BYTES = 4096; // ~68 s of ticks at 60 Hz per write
+
+    private final InputSource delegate;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private final Path file;
+    private long ticks = 0;
+    private boolean failed = false;
+
+    private InputRecorder(InputSource delegate, FileChannel channel, Path file) {
+        this.delegate = delegate;
+        this.channel = channel;
+        this.file = file;
+    }
+
+    static InputRecorder create(Path file, InputSource delegate, long seed, int ticksPerSecond) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        InputRecorder recorder = new InputRecorder(delegate, channel, file);
+        recorder.buffer.putInt(MAGIC).putInt(VERSION).putInt(ticksPerSecond).putLong(seed);
+        return recorder;
+    }
+
+    // records to -Dde.record=<file> when set; otherwise returns null
+    static InputRecorder fromSystemProperties(InputSource delegate, long seed, int ticksPerSecond) {
+        String path = System.getProperty("de.record");
+        if (path == null || path.isEmpty()) return null;
+        try {
+            InputRecorder recorder = create(Path.of(path), delegate, seed, ticksPerSecond);
+            System.out.println("Recording input to " + path);
+            return recorder;
+        } catch (IOException e) {
+            System.out.println("Could not start recording: " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public int poll() {
+        int keys = delegate.poll();
+        if (!failed) {
+            if (!buffer.hasRemaining()) drain();
+            buffer.put((byte) keys);
+            ticks++;
+        }
+        return keys;
+    }
+
+    long ticks() {
+        return ticks;
+    }
+
+    // write the trailer (final state checksum) and close the file
+    void finish(long stateChecksum) {
+        try {
+            if (!failed) {
+                if (buffer.remaining() < TRAILER_BYTES) drain();
+                buffer.putLong(ticks).putLong(stateChecksum).putInt(END_MAGIC);
+                drain();
+                if (!failed) System.out.println("Recorded " + ticks + " ticks to " + file);
+            }
+            channel.close();
+        } catch (IOException e) {
+            System.out.println("Could not close recording: " + e.getMessage());
+        }
+    }
+
+    private void drain() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) channel.write(buffer);
+        } catch (IOException e) {
+            // keep the game running; the file just ends here (no trailer)
+            System.out.println("Recording stopped: " + e.getMessage());
+            failed = true;
+        }
+        buffer.clear();
+    }
+}
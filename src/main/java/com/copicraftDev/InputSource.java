@@ -0,0 +1,19 @@
+package com.copicraftDev;
+
+// Supplies one input snapshot per simulation step as a bitmask.
+// Implementations can be fed by window callbacks or scripted for headless runs.
+public interface InputSource {
+
+    // held movement keys (a press shorter than a tick still shows up for one tick)
+    int LEFT = 1;
+    int RIGHT = 1 << 1;
+    int UP = 1 << 2;
+    int DOWN = 1 << 3;
+    // edge: H (dimension toggle) was pressed since the previous snapshot
+    int TOGGLE = 1 << 4;
+
+    // Snapshot for the next step; called exactly once per step
+    int poll();
+
+    InputSource NONE = () -> 0;
+}
@@ -0,0 +1,48 @@
+package com.copicraftDev;
+
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+
+import java.nio.FloatBuffer;
+
+// GlBackend on the current LWJGL context.
+public final class LwjglGlBackend implements GlBackend {
+
+    @Override public void viewport(int x, int y, int width, int height) { GL11.glViewport(x, y, width, height); }
+    @Override public void matrixMode(int mode) { GL11.glMatrixMode(mode); }
+    @Override public void loadIdentity() { GL11.glLoadIdentity(); }
+
+    @Override
+    public void ortho(double left, double right, double bottom, double top, double near, double far) {
+        GL11.glOrtho(left, right, bottom, top, near, far);
+    }
+
+    @Override public void clearColor(float r, float g, float b, float a) { GL11.glClearColor(r, g, b, a); }
+    @Override public void clear(int mask) { GL11.glClear(mask); }
+    @Override public void lineWidth(float width) { GL11.glLineWidth(width); }
+    @Override public void color3f(float r, float g, float b) { GL11.glColor3f(r, g, b); }
+
+    @Override public void begin(int mode) { GL11.glBegin(mode); }
+    @Override public void vertex2f(float x, float y) { GL11.glVertex2f(x, y); }
+    @Override public void end() { GL11.glEnd(); }
+
+    @Override public int genBuffer() { return GL15.glGenBuffers(); }
+    @Override public void deleteBuffer(int buffer) { GL15.glDeleteBuffers(buffer); }
+    @Override public void bindBuffer(int target, int buffer) { GL15.glBindBuffer(target, buffer); }
+    @Override public void bufferData(int target, long size, int usage) { GL15.glBufferData(target, size, usage); }
+    @Override public void bufferSubData(int target, long offset, FloatBuffer data) { GL15.glBufferSubData(target, offset, data); }
+    @Override public void enableClientState(int array) { GL11.glEnableClientState(array); }
+    @Override public void disableClientState(int array) { GL11.glDisableClientState(array); }
+
+    @Override
+    public void vertexPointer(int size, int type, int stride, long offset) {
+        GL11.glVertexPointer(size, type, stride, offset);
+    }
+
+    @Override
+    public void colorPointer(int size, int type, int stride, long offset) {
+        GL11.glColorPointer(size, type, stride, offset);
+    }
+
+    @Override public void drawArrays(int mode, int first, int count) { GL11.glDrawArrays(mode, first, count); }
+}
@@ -4,17 +4,56 @@ import org.lwjgl.glfw.GLFW;
 import org.lwjgl.opengl.GL;
 import org.lwjgl.opengl.GL11;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Random;
+
 public class Main {
 
     private long window;
     private int windowWidth = 800;    // logical window coords (what cursor uses)
     private int windowHeight = 600;
-    // framebuffer (actual GPU pixels) - used for viewport
-    private final int[] fbw = new int[1];
-    private final int[] fbh = new int[1];
+    // keyboard/mouse state fed by GLFW callbacks
+    private final WindowInput input = new WindowInput();
+
+    // every GL call goes through this so redundant state changes are dropped
+    private GlState gl;
 
     private boolean gameStarted = false;
     private Game game = null;
+    // -Dde.record=<file> saves the session's input for headless Replay
+    private InputRecorder recorder = null;
+    // F5 / F9 quick save and load (-Dde.saveFile, default quicksave.dxs)
+    private final Path saveFile = Path.of(System.getProperty("de.saveFile", "quicksave.dxs"));
+
+    // Fixed simulation rate (on the game's simulation thread), independent of the display refresh
+    private static final int TICKS_PER_SECOND = 60;
+    private static final int MAX_CATCH_UP_TICKS = 5;
+    private final FrameLimiter limiter = FrameLimiter.fromSystemProperties();
+
+    // Frame timing (F3 toggles the overlay; dumped to JSON/CSV on exit)
+    private final FrameProfiler profiler = FrameProfiler.fromSystemProperties();
+    // steps the game's quality down/up to hold the frame budget (-Dde.quality=auto|high|medium|low|minimal)
+    private final QualityGovernor governor = QualityGovernor.fromSystemProperties(profiler.frameBudgetNanos());
+
+    // -Dde.spectatorPort=<port> streams each game to spectators; -Dde.spectate=<host>:<port>
+    // makes this window one of them instead of playing
+    private final int spectatorPort = Integer.getInteger("de.spectatorPort", 0);
+    private final String spectateAddress = System.getProperty("de.spectate");
+    private SpectatorClient spectator = null;
+    private GameRenderer spectatorView = null; // draws the stream; no local game is built
+
+    // built and warmed up while the menu shows (-Dde.warmup=false: built on the click instead)
+    private Warmup warmup = null;
+    private static final int PREGENERATED_CHUNKS = 8;
+
+    // Kiosk / startup runs: -Dde.autoStart skips the click on the menu, -Dde.quitAfter=<s> closes
+    // the window that many seconds after the first frame (0 = right after it)
+    private final boolean autoStart = Boolean.getBoolean("de.autoStart");
+    private final double quitAfterSeconds = Double.parseDouble(System.getProperty("de.quitAfter", "-1"));
+    private long firstFrameNanos = 0L;
 
     // Button in pixels (centered)
     private final int buttonPixelW = 400;
@@ -24,7 +63,18 @@ public class Main {
 
     public void run() {
         init();
+        if (spectateAddress != null) startSpectating();
         loop();
+        if (spectator != null) {
+            spectator.close();
+            System.out.println(spectator.summary());
+            spectatorView.dispose();
+        }
+        if (warmup != null) warmup.finish();
+        if (game != null) game.stopSimulation();
+        if (recorder != null) recorder.finish(game.stateChecksum());
+        if (game != null) game.dispose();
+        profiler.dump();
         GLFW.glfwTerminate();
     }
 
@@ -35,23 +85,27 @@ public class Main {
         if (window == 0) throw new RuntimeException("Failed to create window");
 
         GLFW.glfwMakeContextCurrent(window);
-        GLFW.glfwSwapInterval(1);
+        GLFW.glfwSwapInterval(limiter.swapInterval());
         GL.createCapabilities();
+        gl = new GlState(new LwjglGlBackend());
+        input.install(window);
 
         // initial sizes
         int[] ww = new int[1], wh = new int[1];
         GLFW.glfwGetWindowSize(window, ww, wh);
         windowWidth = ww[0];
         windowHeight = wh[0];
+        // framebuffer (actual GPU pixels) - used for viewport; after this only the callback changes it
+        int[] fbw = new int[1], fbh = new int[1];
         GLFW.glfwGetFramebufferSize(window, fbw, fbh);
-        GL11.glViewport(0, 0, fbw[0], fbh[0]);
+        gl.viewport(0, 0, fbw[0], fbh[0]);
 
         // compute centered button pixel position
         computeButtonPosition();
 
         // optional: handle window resize to update viewport and button
         GLFW.glfwSetFramebufferSizeCallback(window, (win, w, h) -> {
-            GL11.glViewport(0, 0, w, h);
+            gl.viewport(0, 0, w, h);
             // framebuffer changed (HiDPI), still keep logical window size for mouse coords,
             // but we could query window size if needed.
         });
@@ -62,8 +116,6 @@ public class Main {
             windowHeight = h;
             computeButtonPosition();
         });
-
-        GL11.glClearColor(0f, 0f, 0f, 1f);
     }
 
     private void computeButtonPosition() {
@@ -72,38 +124,160 @@ public class Main {
     }
 
     private void loop() {
+        long lastFrameStart = 0L;
+        long lastWait = 0L; // swap + limiter of the previous frame
         while (!GLFW.glfwWindowShouldClose(window)) {
-            GLFW.glfwPollEvents();
-
-            // Keep viewport in sync (in case dpi/framebuffer changed externally)
-            GLFW.glfwGetFramebufferSize(window, fbw, fbh);
-            GL11.glViewport(0, 0, fbw[0], fbh[0]);
+            long frameStart = System.nanoTime();
+            if (gameStarted && lastFrameStart != 0L) {
+                long frameNanos = frameStart - lastFrameStart;
+                profiler.frame(frameNanos);
+                if (governor.frame(frameNanos, frameNanos - lastWait)) applyQuality(governor.level());
+            }
+            lastFrameStart = frameStart;
 
-            GL11.glClear(GL11.GL_COLOR_BUFFER_BIT);
+            GLFW.glfwPollEvents();
 
             if (!gameStarted) {
+                gl.clearColor(0f, 0f, 0f, 1f);
+                gl.clear(GL11.GL_COLOR_BUFFER_BIT);
                 // set simple pixel projection: origin top-left matches GLFW cursor coords
-                GL11.glMatrixMode(GL11.GL_PROJECTION);
-                GL11.glLoadIdentity();
                 // left=0, right=windowWidth, top=0, bottom=windowHeight => origin top-left
-                GL11.glOrtho(0, windowWidth, windowHeight, 0, -1, 1);
-                GL11.glMatrixMode(GL11.GL_MODELVIEW);
-                GL11.glLoadIdentity();
+                gl.ortho2D(0, windowWidth, windowHeight, 0, -1, 1);
 
                 drawButtonPixels();
+                // the menu is on screen: get the game ready behind it
+                if (game == null && firstFrameNanos != 0L && Warmup.enabled()) prepareGame();
                 if (checkButtonClickPixels()) {
                     System.out.println("Button clicked!");
-                    gameStarted = true;
+                    startGame();
+                } else if (autoStart) {
+                    startGame();
                 }
+            } else if (spectator != null) {
+                if (input.consumePress(GLFW.GLFW_KEY_F3)) spectatorView.toggleProfilerOverlay();
+                long t = profiler.start();
+                spectatorView.renderFrame(spectator.latest(), System.nanoTime());
+                profiler.lap(FrameProfiler.RENDER, t);
             } else {
-                if (game == null) {
-                    game = new Game(window);
-                }
-                // switch to a logical projection for the game if needed (Game can handle)
-                game.update(1f / 60f);
+                if (input.consumePress(GLFW.GLFW_KEY_F3)) game.toggleProfilerOverlay();
+                if (input.consumePress(GLFW.GLFW_KEY_F5)) quickSave();
+                if (input.consumePress(GLFW.GLFW_KEY_F9)) quickLoad();
+                // hold R to scrub back through the last few seconds (a recording can't replay a rewind)
+                game.setRewinding(recorder == null && input.isKeyDown(GLFW.GLFW_KEY_R));
+
+                // ticks run on the simulation thread; this thread only draws (and clears) what it published
+                long t = profiler.start();
+                game.render();
+                profiler.lap(FrameProfiler.RENDER, t);
             }
 
+            long waitStart = System.nanoTime();
             GLFW.glfwSwapBuffers(window);
+            if (gameStarted) profiler.lap(FrameProfiler.SWAP, waitStart);
+            if (firstFrameNanos == 0L) {
+                firstFrameNanos = System.nanoTime();
+                reportFirstFrame();
+            }
+            if (quitAfterSeconds >= 0 && System.nanoTime() - firstFrameNanos >= quitAfterSeconds * 1e9) {
+                GLFW.glfwSetWindowShouldClose(window, true);
+            }
+            limiter.sync();
+            lastWait = System.nanoTime() - waitStart;
+        }
+    }
+
+    // launch latency: process start (JVM boot included) to the first swapped frame
+    private static void reportFirstFrame() {
+        ProcessHandle.current().info().startInstant().ifPresent(start ->
+                System.out.println("First frame " + Duration.between(start, Instant.now()).toMillis() + " ms after launch"));
+    }
+
+    // the menu is on screen: build the game behind it and warm up the JIT in the background
+    private void prepareGame() {
+        long seed = buildGame();
+        warmup = new Warmup(seed, Warmup.ticksFromSystemProperties(), new FrameClock(TICKS_PER_SECOND, MAX_CATCH_UP_TICKS));
+        warmup.start();
+    }
+
+    // build the game (not ticking yet) and generate its first chunks; returns its seed
+    private long buildGame() {
+        // world seed: -Dde.seed=<n> replays a known world, otherwise random
+        long seed = Long.getLong("de.seed", new Random().nextLong());
+        recorder = InputRecorder.fromSystemProperties(input, seed, TICKS_PER_SECOND);
+        game = newGame(recorder != null ? recorder : input, seed);
+        game.pregenerate(PREGENERATED_CHUNKS);
+        return seed;
+    }
+
+    private void startGame() {
+        if (game == null) buildGame(); // no warmup to wait for: start right away
+        if (warmup != null) {
+            warmup.finish();
+            warmup = null;
+        }
+        game.start();
+        gameStarted = true;
+        profiler.gameplayStarted();
+        governor.restart();
+    }
+
+    // a new game that isn't ticking yet (see Game.start)
+    private Game newGame(InputSource source, long seed) {
+        Game g = new Game(gl, source, seed, new FrameClock(TICKS_PER_SECOND, MAX_CATCH_UP_TICKS), profiler);
+        g.setQuality(governor.level());
+        if (spectatorPort > 0) {
+            try {
+                g.serveSpectators(spectatorPort);
+            } catch (IOException e) {
+                System.out.println("Could not serve spectators: " + e.getMessage());
+            }
+        }
+        return g;
+    }
+
+    private void applyQuality(QualityGovernor.Level level) {
+        if (game != null) game.setQuality(level);
+        if (spectatorView != null) spectatorView.setQuality(level);
+    }
+
+    // draw another game's stream instead of playing
+    private void startSpectating() {
+        try {
+            spectator = new SpectatorClient(SpectatorClient.parseAddress(spectateAddress),
+                    1_000_000_000L / TICKS_PER_SECOND, 0, 0);
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("Could not spectate " + spectateAddress + ": " + e.getMessage());
+            return;
+        }
+        spectator.start();
+        spectatorView = new GameRenderer(gl, profiler);
+        spectatorView.setQuality(governor.level());
+        gameStarted = true;
+        governor.restart();
+        System.out.println("Spectating " + spectateAddress);
+    }
+
+    private void quickSave() {
+        game.requestSave(saveFile);
+    }
+
+    private void quickLoad() {
+        if (recorder != null) {
+            System.out.println("Loading is disabled while recording");
+            return;
+        }
+        try {
+            long seed = Game.savedSeed(saveFile);
+            if (seed != game.seed()) {
+                // the save is from another world: rebuild the game around its seed
+                game.dispose();
+                game = newGame(input, seed);
+                game.start();
+                governor.restart();
+            }
+            game.requestLoad(saveFile);
+        } catch (IOException e) {
+            System.out.println("Could not load: " + e.getMessage());
         }
     }
 
@@ -114,28 +288,24 @@ public class Main {
         int x2 = buttonPixelX + buttonPixelW;
         int y2 = buttonPixelY + buttonPixelH;
 
-        GL11.glBegin(GL11.GL_QUADS);
-        GL11.glColor3f(0.1f, 0.8f, 0.3f);
-        GL11.glVertex2f(x1, y1);
-        GL11.glVertex2f(x2, y1);
-        GL11.glVertex2f(x2, y2);
-        GL11.glVertex2f(x1, y2);
-        GL11.glEnd();
+        gl.color(0.1f, 0.8f, 0.3f);
+        gl.begin(GL11.GL_QUADS);
+        gl.vertex(x1, y1);
+        gl.vertex(x2, y1);
+        gl.vertex(x2, y2);
+        gl.vertex(x1, y2);
+        gl.end();
     }
 
     private boolean checkButtonClickPixels() {
-        // Get cursor pos in window coordinates (top-left origin)
-        double[] mx = new double[1];
-        double[] my = new double[1];
-        GLFW.glfwGetCursorPos(window, mx, my);
-        int mouseX = (int) mx[0];
-        int mouseY = (int) my[0];
-
-        // Debug prints - comment out if noisy
-        // System.out.printf("mouseX=%d mouseY=%d windowW=%d windowH=%d fb=%dx%d%n", mouseX, mouseY, windowWidth, windowHeight, fbw[0], fbh[0]);
-
-        // Mouse click down
-        if (GLFW.glfwGetMouseButton(window, GLFW.GLFW_MOUSE_BUTTON_LEFT) == GLFW.GLFW_PRESS) {
+        // Latched left click since the last frame, in window coordinates (top-left origin)
+        if (input.consumeClick()) {
+            int mouseX = (int) input.clickX();
+            int mouseY = (int) input.clickY();
+
+            // Debug prints - comment out if noisy
+            // System.out.printf("mouseX=%d mouseY=%d windowW=%d windowH=%d%n", mouseX, mouseY, windowWidth, windowHeight);
+
             // cursor coords are top-left origin, buttonPixelX/Y uses same top-left origin => direct compare
             if (mouseX >= buttonPixelX && mouseX <= buttonPixelX + buttonPixelW &&
                     mouseY >= buttonPixelY && mouseY <= buttonPixelY + buttonPixelH) {
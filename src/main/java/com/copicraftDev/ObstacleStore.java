@@ -0,0 +1,294 @@
+package com.copicraftDev;
+
+import java.nio.ByteBuffer;
+
+// Struct-of-arrays ring buffer of obstacles kept sorted by x.
+// New obstacles almost always arrive at the right end and old ones leave from
+// the left, so adding is an append at the tail and pruning just moves the
+// head. No per-obstacle objects; the arrays only reallocate when full.
+//
+// Indices in the public API are logical (0 = leftmost live obstacle).
+//
+// Only obstacles whose half-width is still moving toward its target are in
+// the animating set; settled ones sleep and animate() never touches them.
+final class ObstacleStore {
+
+    private float[] x;
+    private float[] halfW;       // current (visual) half-width
+    private float[] targetHalfW;
+    private float[] animSpeed;
+    private long[] active;       // bitset over physical slots
+    private long[] animating;    // bitset over physical slots: halfW not at its target yet
+    private int animatingCount = 0;
+
+    private int mask;
+    private int head = 0;        // physical slot of logical index 0
+    private int size = 0;
+
+    // upper bound on max(halfW, target) over live obstacles; pads range queries
+    // so wide obstacles whose centre is just outside a range are still found.
+    // Raised on add; when the obstacle holding it is pruned or one settles
+    // narrower, it is only marked stale and rescanned on the next query. Until
+    // then (and while a wide obstacle is still shrinking) it stays on the high
+    // side: queries look at a few more candidates, never miss one. A running
+    // max per chunk would avoid the O(size) rescan, but that happens at most
+    // once per tick and the stores hold a few hundred obstacles.
+    private float maxHalfW = 0f;
+    private boolean maxHalfWStale = false;
+
+    ObstacleStore(int initialCapacity) {
+        int cap = Integer.highestOneBit(Math.max(16, initialCapacity) - 1) << 1;
+        allocate(cap);
+    }
+
+    private void allocate(int cap) {
+        x = new float[cap];
+        halfW = new float[cap];
+        targetHalfW = new float[cap];
+        animSpeed = new float[cap];
+        active = new long[(cap + 63) >>> 6];
+        animating = new long[(cap + 63) >>> 6];
+        mask = cap - 1;
+    }
+
+    int size() { return size; }
+    float maxHalfW() {
+        if (maxHalfWStale) {
+            float m = 0f;
+            for (int i = 0; i < size; i++) {
+                int s = slot(i);
+                m = Math.max(m, Math.max(halfW[s], targetHalfW[s]));
+            }
+            maxHalfW = m;
+            maxHalfWStale = false;
+        }
+        return maxHalfW;
+    }
+    int capacity() { return mask + 1; }
+    int animatingCount() { return animatingCount; }
+
+    private int slot(int i) { return (head + i) & mask; }
+
+    float x(int i) { return x[slot(i)]; }
+    float halfW(int i) { return halfW[slot(i)]; }
+    float targetHalfW(int i) { return targetHalfW[slot(i)]; }
+    float animSpeed(int i) { return animSpeed[slot(i)]; }
+
+    boolean isActive(int i) {
+        int s = slot(i);
+        return (active[s >>> 6] & (1L << s)) != 0;
+    }
+
+    void setActive(int i, boolean value) {
+        int s = slot(i);
+        if (value) active[s >>> 6] |= 1L << s;
+        else active[s >>> 6] &= ~(1L << s);
+    }
+
+    // insert keeping x order; O(1) at either end (spawning ahead / backfilling behind)
+    void add(float ox, float startHalfW, float target, float speed) {
+        if (size == mask + 1) grow();
+
+        if (size > 0 && ox < x[head]) {
+            head = (head - 1) & mask;
+            set(head, ox, startHalfW, target, speed);
+            return;
+        }
+
+        int i = size;
+        // shift larger obstacles one slot right until the new one fits
+        while (i > 0 && x[slot(i - 1)] > ox) {
+            copySlot(slot(i - 1), slot(i));
+            i--;
+        }
+        set(slot(i), ox, startHalfW, target, speed);
+    }
+
+    private void set(int s, float ox, float startHalfW, float target, float speed) {
+        x[s] = ox;
+        targetHalfW[s] = target;
+        animSpeed[s] = speed;
+        active[s >>> 6] |= 1L << s;
+        // the slot may still hold the bit of the obstacle that was shifted out of it
+        if (Smoothing.settled(startHalfW, target)) {
+            halfW[s] = target;
+            animating[s >>> 6] &= ~(1L << s);
+        } else {
+            halfW[s] = startHalfW;
+            animating[s >>> 6] |= 1L << s;
+            animatingCount++;
+        }
+        size++;
+
+        float w = Math.max(startHalfW, target);
+        if (w > maxHalfW) maxHalfW = w;
+    }
+
+    private void copySlot(int from, int to) {
+        x[to] = x[from];
+        halfW[to] = halfW[from];
+        targetHalfW[to] = targetHalfW[from];
+        animSpeed[to] = animSpeed[from];
+        if ((active[from >>> 6] & (1L << from)) != 0) active[to >>> 6] |= 1L << to;
+        else active[to >>> 6] &= ~(1L << to);
+        // not counted: the slot it was copied from is overwritten by set() next
+        if ((animating[from >>> 6] & (1L << from)) != 0) animating[to >>> 6] |= 1L << to;
+        else animating[to >>> 6] &= ~(1L << to);
+    }
+
+    private void sleep(int s) {
+        long bit = 1L << s;
+        if ((animating[s >>> 6] & bit) != 0) {
+            animating[s >>> 6] &= ~bit;
+            animatingCount--;
+        }
+    }
+
+    // drop every obstacle left of minX; returns how many were removed
+    int pruneBefore(float minX) {
+        int removed = 0;
+        while (size > 0 && x[head] < minX) {
+            // a shrinking one may have raised maxHalfW when it was wider
+            if ((animating[head >>> 6] & (1L << head)) != 0
+                    || Math.max(halfW[head], targetHalfW[head]) >= maxHalfW) maxHalfWStale = true;
+            active[head >>> 6] &= ~(1L << head);
+            sleep(head);
+            head = (head + 1) & mask;
+            size--;
+            removed++;
+        }
+        return removed;
+    }
+
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            int s = slot(i);
+            active[s >>> 6] &= ~(1L << s);
+            sleep(s);
+        }
+        head = 0;
+        size = 0;
+        maxHalfW = 0f;
+        maxHalfWStale = false;
+    }
+
+    // first logical index whose x >= minX (size if none)
+    int lowerBound(float minX) {
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (x[slot(mid)] < minX) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // first logical index whose x > maxX (size if none)
+    int upperBound(float maxX) {
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (x[slot(mid)] <= maxX) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // move every obstacle by -dx (floating origin, see Simulation); order is unchanged
+    void shift(float dx) {
+        for (int i = 0; i < size; i++) x[slot(i)] -= dx;
+    }
+
+    // exponential smoothing of visual half-width toward its target, for the
+    // animating set only; obstacles that arrive within Smoothing.EPSILON snap
+    // to the target and go to sleep
+    void animate(Smoothing smoothing) {
+        if (animatingCount == 0) return;
+        float speed = Float.NaN, alpha = 0f;
+        for (int word = 0; word < animating.length; word++) {
+            long bits = animating[word];
+            while (bits != 0L) {
+                int s = (word << 6) | Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+
+                // neighbours almost always share a speed
+                if (animSpeed[s] != speed) {
+                    speed = animSpeed[s];
+                    alpha = smoothing.factor(speed);
+                }
+                float target = targetHalfW[s];
+                float w = halfW[s] + (target - halfW[s]) * alpha;
+                if (Smoothing.settled(w, target)) {
+                    w = target;
+                    animating[word] &= ~(1L << s);
+                    animatingCount--;
+                    if (target < maxHalfW) maxHalfWStale = true; // it may have been the widest while shrinking
+                }
+                // Clamp so it never inverts
+                halfW[s] = w < 0f ? 0f : w;
+            }
+        }
+    }
+
+    // ---- snapshots: int count, then per obstacle x, halfW, target, speed (floats) + active byte ----
+
+    static final int SNAPSHOT_ENTRY_BYTES = 17;
+
+    static int snapshotBytes(int count) {
+        return 4 + count * SNAPSHOT_ENTRY_BYTES;
+    }
+
+    // bytes writeSnapshot needs for the current contents
+    int snapshotBytes() {
+        return snapshotBytes(size);
+    }
+
+    // absolute writes of snapshotBytes() at offset `at`; returns the offset just past them
+    int writeSnapshot(ByteBuffer buf, int at) {
+        buf.putInt(at, size);
+        int p = at + 4;
+        for (int i = 0; i < size; i++) {
+            int s = slot(i);
+            buf.putFloat(p, x[s]);
+            buf.putFloat(p + 4, halfW[s]);
+            buf.putFloat(p + 8, targetHalfW[s]);
+            buf.putFloat(p + 12, animSpeed[s]);
+            buf.put(p + 16, (byte) ((active[s >>> 6] >>> s) & 1L));
+            p += SNAPSHOT_ENTRY_BYTES;
+        }
+        return p;
+    }
+
+    // replaces the contents with a snapshot written by writeSnapshot
+    // (the animating set follows from halfW vs target, so it isn't stored); returns the offset past it
+    int readSnapshot(ByteBuffer buf, int at) {
+        clear();
+        int count = buf.getInt(at);
+        while (count > mask + 1) grow();
+        int p = at + 4;
+        for (int i = 0; i < count; i++) {
+            set(i, buf.getFloat(p), buf.getFloat(p + 4), buf.getFloat(p + 8), buf.getFloat(p + 12));
+            if (buf.get(p + 16) == 0) active[i >>> 6] &= ~(1L << i);
+            p += SNAPSHOT_ENTRY_BYTES;
+        }
+        return p;
+    }
+
+    private void grow() {
+        float[] ox = x, ow = halfW, ot = targetHalfW, os = animSpeed;
+        long[] oa = active, oan = animating;
+        int oldMask = mask, oldHead = head;
+
+        allocate((oldMask + 1) << 1);
+        for (int i = 0; i < size; i++) {
+            int from = (oldHead + i) & oldMask;
+            x[i] = ox[from];
+            halfW[i] = ow[from];
+            targetHalfW[i] = ot[from];
+            animSpeed[i] = os[from];
+            if ((oa[from >>> 6] & (1L << from)) != 0) active[i >>> 6] |= 1L << i;
+            if ((oan[from >>> 6] & (1L << from)) != 0) animating[i >>> 6] |= 1L << i;
+        }
+        head = 0;
+    }
+}
@@ -0,0 +1,92 @@
+package com.copicraftDev;
+
+import java.util.Random;
+
+// Background particles: dots on parallax layers that wrap around a 4-unit
+// window following the camera, giving a sense of motion.
+//
+// Struct-of-arrays storage. update() works out every particle's x for the
+// current camera with a ParticleKernel (SIMD when available); emit() then
+// writes the visible ones straight into the vertex batch. Positions are a
+// pure function of the camera, so there is no per-particle state to keep.
+final class ParticleField {
+
+    // parallax factors: 1 moves with the world, smaller values are farther away
+    private static final float MIN_PARALLAX = 0.35f;
+
+    private final int count;
+    private final float[] baseX;    // layer position, [-2, 2)
+    private final float[] parallax;
+    private final float[] y;
+    private final float[] size;     // half-size
+    private final float[] drawX;    // output of update()
+    private final ParticleKernel kernel;
+    private int active;             // the first `active` particles are updated and drawn
+
+    ParticleField(int count, Random rand) {
+        this(count, rand, ParticleKernel.best());
+    }
+
+    ParticleField(int count, Random rand, ParticleKernel kernel) {
+        this.count = count;
+        this.active = count;
+        this.kernel = kernel;
+        this.baseX = new float[count];
+        this.parallax = new float[count];
+        this.y = new float[count];
+        this.size = new float[count];
+        this.drawX = new float[count];
+        for (int i = 0; i < count; i++) {
+            baseX[i] = rand.nextFloat() * 4f - 2f;
+            y[i] = rand.nextFloat() * 2f - 1f;
+            size[i] = 0.002f + rand.nextFloat() * 0.006f;
+            parallax[i] = MIN_PARALLAX + rand.nextFloat() * (1f - MIN_PARALLAX);
+        }
+    }
+
+    // particle count from -Dde.particles (default 120)
+    static int countFromSystemProperties() {
+        return Math.max(0, Integer.getInteger("de.particles", 120));
+    }
+
+    int count() {
+        return count;
+    }
+
+    int active() {
+        return active;
+    }
+
+    // draw only the first n (see QualityGovernor); their positions need an update() before the next emit()
+    void setActive(int n) {
+        active = Math.max(0, Math.min(n, count));
+    }
+
+    ParticleKernel kernel() {
+        return kernel;
+    }
+
+    // wrap + parallax for this camera position
+    void update(float cameraX) {
+        kernel.update(baseX, parallax, drawX, 0, active, cameraX);
+    }
+
+    // append the particles that are inside the view (cameraX +- 1) to the batch
+    void emit(VertexBatch batch, float cameraX) {
+        batch.color(0.5f, 0.5f, 0.5f);
+        batch.squares(drawX, y, size, active, cameraX - 1f, cameraX + 1f);
+    }
+
+    // the camera's coordinates moved by -dx (floating origin): move each layer by the part of
+    // dx its parallax would have scrolled, so every particle stays where it was on screen
+    void rebase(float dx) {
+        for (int i = 0; i < count; i++) {
+            float b = baseX[i] - parallax[i] * dx;
+            baseX[i] = b - (float) Math.floor((b + 2f) / ParticleKernel.WINDOW) * ParticleKernel.WINDOW;
+        }
+    }
+
+    float drawX(int i) {
+        return drawX[i];
+    }
+}
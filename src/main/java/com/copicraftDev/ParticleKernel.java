@@ -0,0 +1,47 @@
+package com.copicraftDev;
+
+// Wrap + parallax update of the particle field. Each particle has a fixed
+// layer position baseX; seen through its parallax factor p the camera sits at
+// cameraX * p, and the particle is drawn at its offset from there wrapped into
+// the 4-unit window [-2, 2) around the camera.
+//
+// The wrap count is rounded with the add/subtract-1.5*2^23 trick instead of
+// Math.floor: plain float arithmetic, so a SIMD version can do exactly the same
+// lane by lane. Exact while |offset| < 2^24 (float positions are long past
+// useful by then). Implementations must give bit-identical results; the
+// scalar loop is the reference.
+interface ParticleKernel {
+
+    float WINDOW = 4f;
+    float ROUND_MAGIC = 12582912f; // 1.5 * 2^23
+
+    // writes outX[i] for i in [from, to)
+    void update(float[] baseX, float[] parallax, float[] outX, int from, int to, float cameraX);
+
+    ParticleKernel SCALAR = (baseX, parallax, outX, from, to, cameraX) -> {
+        for (int i = from; i < to; i++) {
+            float offset = baseX[i] - parallax[i] * cameraX;
+            float turns = (offset * (1f / WINDOW) + ROUND_MAGIC) - ROUND_MAGIC;
+            outX[i] = (offset - turns * WINDOW) + cameraX;
+        }
+    };
+
+    // Vector API kernel when jdk.incubator.vector is on the module path and not
+    // disabled with -Dde.particleSimd=false; the scalar loop otherwise. Loaded
+    // reflectively so this class still links when the module is missing.
+    static ParticleKernel best() {
+        if (!Boolean.parseBoolean(System.getProperty("de.particleSimd", "true"))) return SCALAR;
+        ParticleKernel vector = vector();
+        return vector != null ? vector : SCALAR;
+    }
+
+    // the Vector API kernel, or null when it can't be loaded
+    static ParticleKernel vector() {
+        try {
+            return (ParticleKernel) Class.forName("com.copicraftDev.VectorParticleKernel")
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+}
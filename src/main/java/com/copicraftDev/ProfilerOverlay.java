@@ -0,0 +1,61 @@
+package com.copicraftDev;
+
+// On-screen view of FrameProfiler: one row per phase, a light bar for p99 with
+// a darker p50 bar on top, scaled so the full row width is one frame budget.
+// A red strip at the top grows with the share of over-budget frames.
+// The tick phases come from the RenderState (the simulation thread's
+// profiler, see FrameProfiler), the frame phases from the GL thread's own.
+final class ProfilerOverlay {
+
+    private static final float ROW_HEIGHT = 0.035f;
+    private static final float ROW_GAP = 0.01f;
+    private static final float WIDTH = 0.8f;
+
+    private boolean visible = false;
+
+    void toggle() {
+        visible = !visible;
+    }
+
+    boolean isVisible() {
+        return visible;
+    }
+
+    // left/top in world coordinates of the current projection
+    void emit(VertexBatch batch, FrameProfiler profiler, RenderState state, float left, float top) {
+        if (!visible || !profiler.isEnabled()) return;
+
+        float budget = profiler.frameBudgetNanos();
+        int rows = FrameProfiler.PHASE_COUNT;
+        float height = rows * (ROW_HEIGHT + ROW_GAP) + ROW_GAP * 3;
+
+        batch.color(0.1f, 0.1f, 0.1f);
+        batch.quad(left, top - height, left + WIDTH + 2f * ROW_GAP, top);
+
+        Histogram frames = profiler.phase(FrameProfiler.FRAME);
+        float overShare = frames.count() == 0 ? 0f : (float) profiler.overBudgetFrames() / frames.count();
+        batch.color(0.9f, 0.2f, 0.2f);
+        batch.quad(left + ROW_GAP, top - ROW_GAP * 1.5f, left + ROW_GAP + WIDTH * overShare, top - ROW_GAP * 0.5f);
+
+        float y = top - ROW_GAP * 3;
+        for (int i = 0; i < rows; i++) {
+            boolean tick = FrameProfiler.isTickPhase(i);
+            Histogram h = profiler.phase(i);
+            float x0 = left + ROW_GAP;
+            float p99 = Math.min(1f, (tick ? state.phaseP99[i] : h.percentile(0.99)) / budget) * WIDTH;
+            float p50 = Math.min(1f, (tick ? state.phaseP50[i] : h.percentile(0.50)) / budget) * WIDTH;
+
+            batch.color(0.25f, 0.25f, 0.25f);
+            batch.quad(x0, y - ROW_HEIGHT, x0 + WIDTH, y);
+            if (p99 > 0f) {
+                batch.color(0.95f, 0.75f, 0.3f);
+                batch.quad(x0, y - ROW_HEIGHT, x0 + p99, y);
+            }
+            if (p50 > 0f) {
+                batch.color(0.3f, 0.8f, 0.4f);
+                batch.quad(x0, y - ROW_HEIGHT, x0 + p50, y);
+            }
+            y -= ROW_HEIGHT + ROW_GAP;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.copicraftDev;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+// Frame-budget governor: watches frame-time percentiles over windows of
+// WINDOW_FRAMES frames and steps the game's quality level down when frames
+// miss the budget, and back up after a run of windows with plenty of room.
+//
+// Two times are tracked per frame: the whole frame, which is what the player
+// sees (under vsync a missed frame shows up as a double-length one), and the
+// frame's work, the frame minus the time spent waiting in swap and the frame
+// limiter. Stepping down goes by the first, stepping up by the second, since
+// with vsync on every frame that makes it is exactly one budget long.
+//
+// Hysteresis: a step down takes one bad window, a step up needs
+// UPGRADE_WINDOWS good ones in a row, and each time a level has to be left
+// again, the wait before retrying it doubles (up to MAX_UPGRADE_WINDOWS), so
+// a machine that can't quite hold a level doesn't flip in and out of it.
+//
+// -Dde.quality=auto (default) lets it steer; high|medium|low|minimal pins a level.
+final class QualityGovernor {
+
+    // what each level draws; index 0 is full quality
+    static final class Level {
+        final String name;
+        final float particleShare;     // of the particle count (-Dde.particles)
+        final int particleUpdateEvery; // frames between particle position updates
+        final boolean borders;         // tunnel outline (the only lines in a frame)
+
+        Level(String name, float particleShare, int particleUpdateEvery, boolean borders) {
+            this.name = name;
+            this.particleShare = particleShare;
+            this.particleUpdateEvery = particleUpdateEvery;
+            this.borders = borders;
+        }
+    }
+
+    static final Level[] LEVELS = {
+            new Level("high", 1f, 1, true),
+            new Level("medium", 0.5f, 1, true),
+            new Level("low", 0.25f, 2, false),
+            new Level("minimal", 0.1f, 3, false),
+    };
+
+    private static final int WINDOW_FRAMES = 60;
+    private static final double P = 0.95;
+    // frame p95 over this share of the budget: frames are being missed
+    private static final double MISS = 1.2;
+    // work p95 under this share of the budget: room to step up
+    private static final double HEADROOM = 0.6;
+    private static final int UPGRADE_WINDOWS = 3;
+    private static final int MAX_UPGRADE_WINDOWS = 300; // 5 minutes
+
+    private final long budgetNanos;
+    private final boolean adaptive;
+    private final Histogram frames = new Histogram();
+    private final Histogram work = new Histogram();
+    // good windows needed before stepping up into each level
+    private final int[] upgradeWindows = new int[LEVELS.length];
+    private int level;
+    private int goodWindows = 0;
+    // the first window after a start or a change is the transition itself; not judged
+    private boolean settling = true;
+
+    QualityGovernor(long budgetNanos, int level, boolean adaptive) {
+        this.budgetNanos = budgetNanos;
+        this.level = level;
+        this.adaptive = adaptive;
+        Arrays.fill(upgradeWindows, UPGRADE_WINDOWS);
+    }
+
+    static QualityGovernor fromSystemProperties(long budgetNanos) {
+        String name = System.getProperty("de.quality", "auto").trim().toLowerCase(Locale.ROOT);
+        if (name.equals("auto")) return new QualityGovernor(budgetNanos, 0, true);
+        for (int i = 0; i < LEVELS.length; i++) {
+            if (LEVELS[i].name.equals(name)) return new QualityGovernor(budgetNanos, i, false);
+        }
+        System.out.println("Unknown quality '" + name + "', using auto");
+        return new QualityGovernor(budgetNanos, 0, true);
+    }
+
+    Level level() {
+        return LEVELS[level];
+    }
+
+    // a new game started (or the old one was replaced): judge from a fresh window
+    void restart() {
+        frames.reset();
+        work.reset();
+        goodWindows = 0;
+        settling = true;
+    }
+
+    // one frame: its whole duration and the part not spent waiting on swap / the limiter;
+    // true when the level changed and should be applied
+    boolean frame(long frameNanos, long workNanos) {
+        if (!adaptive) return false;
+        frames.record(frameNanos);
+        work.record(workNanos);
+        if (frames.count() < WINDOW_FRAMES) return false;
+
+        long frameP = frames.percentile(P);
+        long workP = work.percentile(P);
+        frames.reset();
+        work.reset();
+        if (settling) {
+            settling = false;
+            return false;
+        }
+
+        if (frameP > budgetNanos * MISS && level < LEVELS.length - 1) {
+            // the level we leave has to be earned back, for longer each time
+            upgradeWindows[level] = Math.min(upgradeWindows[level] * 2, MAX_UPGRADE_WINDOWS);
+            return change(level + 1, frameP, workP);
+        }
+        if (workP < budgetNanos * HEADROOM && level > 0) {
+            if (++goodWindows >= upgradeWindows[level - 1]) return change(level - 1, frameP, workP);
+        } else {
+            goodWindows = 0;
+        }
+        return false;
+    }
+
+    private boolean change(int to, long frameP, long workP) {
+        System.out.printf(Locale.ROOT, "Quality %s -> %s (frame p95 %.2f ms, work p95 %.2f ms, budget %.2f ms)%n",
+                LEVELS[level].name, LEVELS[to].name, frameP / 1e6, workP / 1e6, budgetNanos / 1e6);
+        level = to;
+        goodWindows = 0;
+        settling = true;
+        return true;
+    }
+}
@@ -0,0 +1,93 @@
+package com.copicraftDev;
+
+// Everything the GL thread needs for one frame, copied out of the Simulation
+// at the end of a tick: player, camera and tunnel for the last two ticks (for
+// interpolation) and the obstacles that can be on screen. Instances are
+// preallocated and cycled through a TripleBuffer; the obstacle arrays only
+// grow. Particles aren't copied: they are a function of the camera.
+final class RenderState {
+
+    // obstacles copied from an ObstacleStore (active ones in the visible range)
+    static final class Obstacles {
+        int count;
+        float[] x = new float[64];
+        float[] halfW = new float[64];
+
+        void capture(ObstacleStore store, float minX, float maxX) {
+            int from = store.lowerBound(minX - store.maxHalfW());
+            int to = store.upperBound(maxX + store.maxHalfW());
+            if (to - from > x.length) {
+                int cap = Integer.highestOneBit(to - from) << 1;
+                x = new float[cap];
+                halfW = new float[cap];
+            }
+            int n = 0;
+            for (int i = from; i < to; i++) {
+                if (!store.isActive(i)) continue;
+                x[n] = store.x(i);
+                halfW[n] = store.halfW(i);
+                n++;
+            }
+            count = n;
+        }
+    }
+
+    long tickTime;  // System.nanoTime() the latest tick was due
+    long tickNanos;
+
+    // positions below are relative to the simulation's floating origin, which is here
+    double originX;
+
+    float prevPlayerX, playerX;
+    float prevPlayerY, playerY;
+    float prevCameraX, cameraX;
+    float prevTunnelHeight, tunnelHeight;
+
+    final Obstacles obstacles1D = new Obstacles();
+    final Obstacles walls = new Obstacles();
+
+    // p50/p99 of the tick phases, from the simulation thread's FrameProfiler (see ProfilerOverlay)
+    final long[] phaseP50 = new long[FrameProfiler.PHASE_COUNT];
+    final long[] phaseP99 = new long[FrameProfiler.PHASE_COUNT];
+
+    void capture(Simulation sim, long tickTime, long tickNanos) {
+        this.tickTime = tickTime;
+        this.tickNanos = tickNanos;
+        originX = sim.originX();
+        prevPlayerX = sim.prevPlayerX();
+        playerX = sim.getPlayerX();
+        prevPlayerY = sim.prevPlayerY();
+        playerY = sim.getPlayerY();
+        prevCameraX = sim.prevCameraX();
+        cameraX = sim.getCameraX();
+        prevTunnelHeight = sim.prevTunnelHeight();
+        tunnelHeight = sim.getTunnelHeight();
+
+        // the view is cameraX +- 1 anywhere between the two ticks
+        float minX = Math.min(prevCameraX, cameraX) - 1f;
+        float maxX = Math.max(prevCameraX, cameraX) + 1f;
+        obstacles1D.capture(sim.obstacles1D(), minX, maxX);
+        walls.capture(sim.tunnelObstacles(), minX, maxX);
+    }
+
+    void captureProfile(long[] p50, long[] p99) {
+        System.arraycopy(p50, 0, phaseP50, 0, phaseP50.length);
+        System.arraycopy(p99, 0, phaseP99, 0, phaseP99.length);
+    }
+
+    // 0..1 position of `now` between the last two ticks
+    float alpha(long now) {
+        if (tickNanos <= 0) return 1f;
+        float a = (float) ((double) (now - tickTime) / tickNanos);
+        return a < 0f ? 0f : Math.min(a, 1f);
+    }
+
+    float lerpPlayerX(float alpha) { return lerp(prevPlayerX, playerX, alpha); }
+    float lerpPlayerY(float alpha) { return lerp(prevPlayerY, playerY, alpha); }
+    float lerpCameraX(float alpha) { return lerp(prevCameraX, cameraX, alpha); }
+    float lerpTunnelHeight(float alpha) { return lerp(prevTunnelHeight, tunnelHeight, alpha); }
+
+    private static float lerp(float a, float b, float t) {
+        return a + (b - a) * t;
+    }
+}
@@ -0,0 +1,132 @@
+package com.copicraftDev;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Headless replay of an InputRecorder file at full CPU speed:
+//
+//   java -cp ... com.copicraftDev.Replay session.dxr
+//
+// The tick bytes are read through a memory-mapped window that slides along
+// the file, so a recording of any length replays with a constant heap.
+// Exits with status 1 when the final state doesn't match the recorded checksum.
+public final class Replay implements InputSource {
+
+    private static final long WINDOW_BYTES = 64L << 20;
+
+    private final FileChannel channel;
+    private final long bodyStart;
+    private final long bodyEnd;
+    private MappedByteBuffer window;
+    private long windowStart;
+
+    private final long seed;
+    private final int ticksPerSecond;
+    private final boolean hasTrailer;
+    private final long expectedChecksum;
+
+    public Replay(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        long size = channel.size();
+        if (size < InputRecorder.HEADER_BYTES) throw new IOException("Not a recording: " + file);
+
+        ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, InputRecorder.HEADER_BYTES);
+        if (header.getInt() != InputRecorder.MAGIC) throw new IOException("Not a recording: " + file);
+        int version = header.getInt();
+        if (version != InputRecorder.VERSION) throw new IOException("Unsupported recording version " + version);
+        ticksPerSecond = header.getInt();
+        seed = header.getLong();
+
+        long end = size;
+        boolean trailer = false;
+        long checksum = 0L;
+        if (size >= InputRecorder.HEADER_BYTES + InputRecorder.TRAILER_BYTES) {
+            ByteBuffer tail = channel.map(FileChannel.MapMode.READ_ONLY,
+                    size - InputRecorder.TRAILER_BYTES, InputRecorder.TRAILER_BYTES);
+            long ticks = tail.getLong();
+            long sum = tail.getLong();
+            if (tail.getInt() == InputRecorder.END_MAGIC
+                    && ticks == size - InputRecorder.TRAILER_BYTES - InputRecorder.HEADER_BYTES) {
+                end = size - InputRecorder.TRAILER_BYTES;
+                trailer = true;
+                checksum = sum;
+            }
+        }
+        bodyStart = InputRecorder.HEADER_BYTES;
+        bodyEnd = end;
+        hasTrailer = trailer;
+        expectedChecksum = checksum;
+        mapWindow(bodyStart);
+    }
+
+    long seed() { return seed; }
+    int ticksPerSecond() { return ticksPerSecond; }
+    long ticks() { return bodyEnd - bodyStart; }
+    boolean hasChecksum() { return hasTrailer; }
+    long expectedChecksum() { return expectedChecksum; }
+
+    private void mapWindow(long from) throws IOException {
+        windowStart = from;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, from, Math.min(WINDOW_BYTES, bodyEnd - from));
+    }
+
+    // next recorded snapshot; nothing held once the recording runs out
+    @Override
+    public int poll() {
+        if (!window.hasRemaining()) {
+            long next = windowStart + window.capacity();
+            if (next >= bodyEnd) return 0;
+            try {
+                mapWindow(next);
+            } catch (IOException e) {
+                throw new IllegalStateException("Recording became unreadable", e);
+            }
+        }
+        return window.get() & 0xFF;
+    }
+
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("usage: Replay <recording>");
+            System.exit(2);
+        }
+        Replay replay = new Replay(Path.of(args[0]));
+        Simulation sim = new Simulation(replay, replay.seed());
+        // same float the live loop passes to Game.tick
+        float dt = new FrameClock(replay.ticksPerSecond(), 1).tickSeconds();
+
+        long ticks = replay.ticks();
+        long start = System.nanoTime();
+        for (long i = 0; i < ticks; i++) sim.step(dt);
+        long elapsed = System.nanoTime() - start;
+        sim.close();
+        replay.close();
+
+        double seconds = elapsed / 1e9;
+        System.out.printf("Replayed %d ticks (%.1f s of play) in %.3f s: %.0f ticks/s, %.0fx real time%n",
+                ticks, ticks / (double) replay.ticksPerSecond(), seconds, ticks / seconds,
+                ticks / (double) replay.ticksPerSecond() / seconds);
+        System.out.printf("Final player (%.5f, %.5f)%n", sim.worldPlayerX(), sim.getPlayerY());
+
+        if (!replay.hasChecksum()) {
+            System.out.println("No trailer (recording was cut short); state not verified");
+            return;
+        }
+        long actual = sim.stateChecksum();
+        if (actual == replay.expectedChecksum()) {
+            System.out.println("State checksum OK (" + Long.toHexString(actual) + ")");
+        } else {
+            System.out.println("State checksum MISMATCH: recorded " + Long.toHexString(replay.expectedChecksum())
+                    + ", replayed " + Long.toHexString(actual));
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,611 @@
+package com.copicraftDev;
+
+import java.nio.ByteBuffer;
+
+// Headless game state: player, tunnel, obstacles and camera.
+// Has no window or GL dependency, so it can be stepped from tests/benchmarks.
+//
+// Positions are floats relative to a floating origin at the left edge of
+// chunk originChunk. When the player gets REBASE_DISTANCE away from it, the
+// origin jumps to the player's chunk and everything is shifted back in one
+// pass, so float precision near the player is the same at any distance.
+public class Simulation {
+
+    private final InputSource input;
+    private final WorldGenerator world;
+    private final ChunkCache chunks;
+    private FrameProfiler profiler = FrameProfiler.OFF;
+    private EventBus events = EventBus.OFF;
+
+    // floating origin: x = 0 is the left edge of this chunk
+    private static final float REBASE_DISTANCE = 1024f;
+    private long originChunk = 0L;
+
+    // Player / world
+    private float playerX = 0f;
+    private float playerY = 0f;
+    private float velX = 0f;
+    private float velY = 0f;
+
+    // Values at the start of the last step, for render interpolation
+    private float prevPlayerX = 0f;
+    private float prevPlayerY = 0f;
+    private float prevCameraX = 0f;
+    private float prevTunnelHeight;
+
+    // Camera
+    private float cameraX = 0f;
+    private float deadZone = 0.55f; // requested smaller dead zone
+
+    // Movement tuning (smoothed; see Tuning)
+    private final float accel;
+    private final float maxSpeed;
+    private final float friction;
+
+    // Tunnel sizes
+    private float tunnelHeight;
+    private final float minTunnelHeight = 0.08f;
+    private final float maxTunnelHeight = 1.6f;
+
+    // Mode toggle
+    private boolean target2D = false; // desired mode
+
+    // smoothing / push
+    private final float tunnelSmoothSpeed = 6f;
+    private final float cameraSmoothSpeed = 6f;
+    // smoothing factors shared by the tunnel, camera and obstacle animations
+    private final Smoothing smoothing = new Smoothing();
+    private final float pushStrengthBase = 4.5f;
+
+    // Player size (collision extents)
+    static final float PLAYER_HALF_W = 0.06f;
+    static final float PLAYER_HALF_H = 0.06f;
+
+    // 1D obstacles (collision half-width is constant; visual width animates)
+    static final float OBSTACLE_HALF_COLLISION = 0.06f;
+    static final float OBSTACLE_HEIGHT = 0.08f;
+    private final float spawnDistance; // 1D slot spacing
+    private static final int CHUNK_CACHE_SIZE = 16;
+
+    // 1D obstacles: x, visual half-width animating toward the collision half-width
+    private final ObstacleStore obstacles1D = new ObstacleStore(64);
+    private long next1DSlot;     // first 1D spawn slot (x = slot * spacing) not yet materialized
+    private float loadedFromX;   // 1D obstacles left of this have been pruned
+
+    // 2D tunnel obstacles (walls): half-width is the wall half-thickness
+    private final ObstacleStore tunnelObstacles = new ObstacleStore(64);
+    private float wallFrontierX; // walls right of this are not materialized yet
+
+    // run statistics (BatchRunner); not part of snapshots or the checksum
+    private long ticks = 0;
+    private long collisions = 0;   // separate hits: blocked after a tick that wasn't
+    private long blockedTicks = 0;
+    private long ticks2D = 0;
+    private boolean blocked = false;
+
+    // Headless: chunks are generated on demand on the calling thread
+    public Simulation(InputSource input, long seed) {
+        this(input, seed, false);
+    }
+
+    // backgroundPrefetch: build chunks ahead of the player on a worker thread
+    public Simulation(InputSource input, long seed, boolean backgroundPrefetch) {
+        this(input, seed, Tuning.DEFAULT, backgroundPrefetch);
+    }
+
+    Simulation(InputSource input, long seed, Tuning tuning, boolean backgroundPrefetch) {
+        this.input = input;
+        this.world = new WorldGenerator(seed, tuning);
+        this.chunks = new ChunkCache(world, CHUNK_CACHE_SIZE, backgroundPrefetch);
+        this.accel = tuning.accel;
+        this.maxSpeed = tuning.maxSpeed;
+        this.friction = tuning.friction;
+        this.spawnDistance = tuning.spawnDistance;
+        this.tunnelHeight = minTunnelHeight;
+        this.cameraX = playerX;
+        savePreviousState();
+
+        // first 1D slot at/after the player; nothing behind the start has been loaded
+        this.next1DSlot = Math.max(0L, (long) Math.ceil(playerX / spawnDistance));
+        this.loadedFromX = cameraX - 6f;
+        this.wallFrontierX = playerX;
+        chunks.prefetch(chunkAt(playerX));
+    }
+
+    // absolute chunk index of a (local) position
+    private long chunkAt(float x) {
+        return originChunk + world.chunkOf(x);
+    }
+
+    // local x of an absolute 1D slot
+    private float slotX(long slot) {
+        return (slot - originChunk * WorldGenerator.SLOTS_PER_CHUNK) * spawnDistance;
+    }
+
+    // first slot at or right of a local x
+    private long slotAtOrAfter(float x) {
+        return originChunk * WorldGenerator.SLOTS_PER_CHUNK + (long) Math.ceil(x / spawnDistance);
+    }
+
+    // build the chunks ahead of the player now (e.g. while a menu is showing) instead of during
+    // the first ticks; chunks are a pure function of the seed, so no game state changes
+    void pregenerate(int chunksAhead) {
+        long first = chunkAt(playerX);
+        for (long c = first; c < first + chunksAhead; c++) chunks.get(c);
+    }
+
+    // advance the world by one step; dt in seconds
+    public void step(float dt) {
+        savePreviousState();
+        smoothing.beginTick(dt);
+        long t = profiler.start();
+
+        int keys = input.poll();
+        handleToggleInput(keys);
+        handleMovementInput(keys, dt);
+        t = profiler.lap(FrameProfiler.INPUT, t);
+        updateTunnel();
+        t = profiler.lap(FrameProfiler.TUNNEL, t);
+        applyVerticalPush(dt);
+        t = profiler.lap(FrameProfiler.PUSH, t);
+
+        // we integrate movement using sweep-style collision for horizontal axis
+        sweepIntegrateHorizontal(dt);
+        t = profiler.lap(FrameProfiler.SWEEP, t);
+        // vertical integration is simpler (limited by tunnel bounds)
+        integrateVertical(dt);
+        t = profiler.lap(FrameProfiler.VERTICAL, t);
+
+        // spawning & updates (chunks come pre-built from the cache)
+        chunks.prefetch(chunkAt(playerX));
+        spawnObstacles1D();
+        spawnTunnelObstaclesIf2D();
+        t = profiler.lap(FrameProfiler.SPAWN, t);
+
+        obstacles1D.animate(smoothing);
+        t = profiler.lap(FrameProfiler.OBSTACLES, t);
+
+        // prune obstacles behind camera to keep lists small
+        pruneOldObstacles();
+        t = profiler.lap(FrameProfiler.PRUNE, t);
+
+        // camera follow
+        updateCamera();
+        rebaseIfFar();
+        profiler.lap(FrameProfiler.CAMERA, t);
+
+        ticks++;
+        if (blocked) blockedTicks++;
+        if (target2D) ticks2D++;
+    }
+
+    private void savePreviousState() {
+        prevPlayerX = playerX;
+        prevPlayerY = playerY;
+        prevCameraX = cameraX;
+        prevTunnelHeight = tunnelHeight;
+    }
+
+    // handle H toggle (the snapshot carries the press edge); convert 2D -> 1D on collapse
+    private void handleToggleInput(int keys) {
+        if ((keys & InputSource.TOGGLE) != 0) {
+            boolean prevTarget2D = target2D;
+            target2D = !target2D;
+            events.publish(EventBus.TOGGLE, ticks, worldPlayerX(), 0f, target2D ? 2 : 1);
+            if (prevTarget2D && !target2D) convertAllTunnelTo1D();
+            // walls never appear right next to the player when the tunnel opens
+            if (target2D) wallFrontierX = Math.max(wallFrontierX, playerX + 2f);
+        }
+    }
+
+    // Convert all current 2D tunnel obstacles into animated 1D obstacles (one-time)
+    void convertAllTunnelTo1D() {
+        float startVisualHalfW = tunnelHeight / 2f; // full tunnel half-width visually
+        float targetHalfW = OBSTACLE_HALF_COLLISION;
+        float animSpeed = 8f;
+        int converted = 0;
+        for (int i = 0; i < tunnelObstacles.size(); i++) {
+            if (!tunnelObstacles.isActive(i)) continue;
+            obstacles1D.add(tunnelObstacles.x(i), startVisualHalfW, targetHalfW, animSpeed);
+            converted++;
+        }
+        tunnelObstacles.clear();
+        if (converted > 0) events.publish(EventBus.CONVERT, ticks, worldPlayerX(), 0f, converted);
+    }
+
+    private boolean isEffectively2D() {
+        return tunnelHeight > (minTunnelHeight + 0.02f);
+    }
+
+    // movement input (WASD + arrows)
+    void handleMovementInput(int keys, float dt) {
+        float inputX = 0f, inputY = 0f;
+        if ((keys & InputSource.LEFT) != 0) inputX -= 1f;
+        if ((keys & InputSource.RIGHT) != 0) inputX += 1f;
+
+        boolean allowVertical = tunnelHeight > (minTunnelHeight + 0.02f);
+        if (allowVertical) {
+            if ((keys & InputSource.UP) != 0) inputY += 1f;
+            if ((keys & InputSource.DOWN) != 0) inputY -= 1f;
+        }
+
+        if (inputX != 0f) velX += inputX * accel * dt;
+        else applyFriction(dt);
+
+        if (allowVertical) {
+            if (inputY != 0f) velY += inputY * accel * dt;
+            else velY *= Math.max(0f, 1f - (friction * 0.5f * dt));
+        } else {
+            velY *= Math.max(0f, 1f - (friction * 2f * dt));
+        }
+
+        velX = clamp(velX, -maxSpeed, maxSpeed);
+        velY = clamp(velY, -maxSpeed, maxSpeed);
+    }
+
+    private void applyFriction(float dt) {
+        if (velX > 0f) { velX -= friction * dt; if (velX < 0f) velX = 0f; }
+        else if (velX < 0f) { velX += friction * dt; if (velX > 0f) velX = 0f; }
+    }
+
+    // Tunnel smooth growth/shrink; sleeps once it has reached the target
+    private void updateTunnel() {
+        float target = target2D ? maxTunnelHeight : minTunnelHeight;
+        if (tunnelHeight == target) return;
+        float h = tunnelHeight + (target - tunnelHeight) * smoothing.factor(tunnelSmoothSpeed);
+        tunnelHeight = Smoothing.settled(h, target) ? target : h;
+    }
+
+    // push player Y toward center when retracting; also clamp inside tunnel
+    private void applyVerticalPush(float dt) {
+        float t = (tunnelHeight - minTunnelHeight) / Math.max(0.0001f, (maxTunnelHeight - minTunnelHeight));
+        t = clamp(t, 0f, 1f);
+        float halfH = tunnelHeight / 2f - PLAYER_HALF_H - 0.01f;
+
+        if (t < 0.999f) {
+            float strength = pushStrengthBase * (1f - t);
+            float pushAlpha = 1f - (float) Math.exp(-strength * dt);
+            playerY += (0f - playerY) * pushAlpha;
+            velY *= Math.max(0f, 1f - (strength * 0.8f * dt));
+        }
+
+        // clamp to tunnel edges
+        if (playerY < -halfH) { playerY = -halfH; velY = 0f; }
+        if (playerY > halfH)  { playerY = halfH;  velY = 0f; }
+    }
+
+    // Sweep-style horizontal integration to avoid tunneling
+    void sweepIntegrateHorizontal(float dt) {
+        float dx = velX * dt;
+        if (dx == 0f) {
+            blocked = false;
+            return;
+        }
+
+        float oldX = playerX;
+        float intendedX = playerX + dx;
+
+        float candidateX = isEffectively2D()
+                ? sweepAgainst(tunnelObstacles, -1f, oldX, intendedX, dx)
+                : sweepAgainst(obstacles1D, OBSTACLE_HALF_COLLISION, oldX, intendedX, dx);
+        boolean collided = candidateX != intendedX;
+
+        if (collided) {
+            if (!blocked) {
+                collisions++;
+                events.publish(EventBus.COLLISION, ticks, originX() + candidateX, Math.abs(velX), 0);
+            }
+            playerX = candidateX;
+            velX = 0f;
+        } else {
+            playerX = intendedX;
+        }
+        blocked = collided;
+    }
+
+    // Nearest hit along [oldX, intendedX] among the store's obstacles, or intendedX if none.
+    // Only obstacles whose x lies within the swept interval padded by both half-widths
+    // can be hit, so that slice is found by binary search instead of scanning everything.
+    // fixedHalfW < 0 means use each obstacle's own half-width (tunnel walls).
+    static float sweepAgainst(ObstacleStore store, float fixedHalfW, float oldX, float intendedX, float dx) {
+        float pad = PLAYER_HALF_W + (fixedHalfW >= 0f ? fixedHalfW : store.maxHalfW());
+        float minX = Math.min(oldX, intendedX);
+        float maxX = Math.max(oldX, intendedX);
+        // a little slack so float rounding in the exact test below can't fall outside the slice
+        float slack = Math.ulp(Math.max(Math.abs(minX), Math.abs(maxX)) + pad) * 4f;
+        int from = store.lowerBound(minX - pad - slack);
+        int to = store.upperBound(maxX + pad + slack);
+
+        float candidateX = intendedX;
+        for (int i = from; i < to; i++) {
+            if (!store.isActive(i)) continue;
+            float x = store.x(i);
+            float halfW = fixedHalfW >= 0f ? fixedHalfW : store.halfW(i);
+            float left = x - halfW;
+            float right = x + halfW;
+
+            if (dx > 0f && oldX + PLAYER_HALF_W <= left && intendedX + PLAYER_HALF_W >= left) {
+                float hitX = left - PLAYER_HALF_W;
+                if (hitX < candidateX) candidateX = hitX;
+            } else if (dx < 0f && oldX - PLAYER_HALF_W >= right && intendedX - PLAYER_HALF_W <= right) {
+                float hitX = right + PLAYER_HALF_W;
+                if (hitX > candidateX) candidateX = hitX;
+            }
+        }
+        return candidateX;
+    }
+
+    void integrateVertical(float dt) {
+        float dy = velY * dt;
+        playerY += dy;
+        float halfH = tunnelHeight / 2f - PLAYER_HALF_H - 0.01f;
+        if (playerY < -halfH) { playerY = -halfH; velY = 0f; }
+        if (playerY > halfH)  { playerY = halfH;  velY = 0f; }
+    }
+
+    void spawnObstacles1D() {
+        if (isEffectively2D()) return;
+        long slot = next1DSlot;
+        while (slotX(slot) < playerX + 3f) {
+            add1DSlot(slot);
+            slot++;
+        }
+        next1DSlot = slot;
+    }
+
+    private void add1DSlot(long slot) {
+        WorldChunk chunk = chunks.get(Math.floorDiv(slot, WorldGenerator.SLOTS_PER_CHUNK));
+        if (chunk.has1D(Math.floorMod(slot, WorldGenerator.SLOTS_PER_CHUNK))) {
+            float x = slotX(slot);
+            obstacles1D.add(x, OBSTACLE_HALF_COLLISION, OBSTACLE_HALF_COLLISION, 10f);
+            events.publish(EventBus.SPAWN, ticks, originX() + x, OBSTACLE_HALF_COLLISION, 1);
+        }
+    }
+
+    // materialize the world's walls from the frontier up to 4 units ahead
+    private void spawnTunnelObstaclesIf2D() {
+        if (!target2D) return;
+        float until = playerX + 4f;
+        if (until <= wallFrontierX) return;
+
+        long last = chunkAt(until);
+        for (long c = chunkAt(wallFrontierX); c <= last; c++) {
+            WorldChunk chunk = chunks.get(c);
+            float chunkStart = (c - originChunk) * world.chunkWidth();
+            for (int i = 0; i < chunk.wallCount; i++) {
+                float x = chunkStart + chunk.wallX[i];
+                if (x >= wallFrontierX && x < until) {
+                    float halfThickness = chunk.wallHalfThickness[i];
+                    tunnelObstacles.add(x, halfThickness, halfThickness, 0f);
+                    events.publish(EventBus.SPAWN, ticks, originX() + x, halfThickness, 2);
+                }
+            }
+        }
+        wallFrontierX = until;
+    }
+
+    void pruneOldObstacles() {
+        float removeBeforeX = cameraX - 6f;
+        if (removeBeforeX < loadedFromX) {
+            backfillObstacles1D(removeBeforeX);
+        } else {
+            int removed = obstacles1D.pruneBefore(removeBeforeX) + tunnelObstacles.pruneBefore(removeBeforeX);
+            if (removed > 0) events.publish(EventBus.PRUNE, ticks, originX() + removeBeforeX, 0f, removed);
+        }
+        loadedFromX = removeBeforeX;
+    }
+
+    // camera moved back left: regenerate the pruned 1D obstacles it can reach again
+    private void backfillObstacles1D(float fromX) {
+        long first = Math.max(0L, slotAtOrAfter(fromX));
+        long end = Math.min(next1DSlot, slotAtOrAfter(loadedFromX));
+        for (long slot = end - 1; slot >= first; slot--) add1DSlot(slot);
+    }
+
+    private void updateCamera() {
+        float leftBound = cameraX - deadZone;
+        float rightBound = cameraX + deadZone;
+        float targetX = cameraX;
+
+        if (playerX > rightBound) targetX = playerX - deadZone;
+        else if (playerX < leftBound) targetX = playerX + deadZone;
+
+        // inside the dead zone (or caught up) there is nothing to do
+        if (targetX == cameraX) return;
+        float x = cameraX + (targetX - cameraX) * smoothing.factor(cameraSmoothSpeed);
+        cameraX = Smoothing.settled(x, targetX) ? targetX : x;
+    }
+
+    // move the origin to the player's chunk once the player is far from it; shifting by
+    // whole chunks keeps chunk and slot positions exact multiples of their spacing
+    private void rebaseIfFar() {
+        if (Math.abs(playerX) < REBASE_DISTANCE) return;
+        long shift = world.chunkOf(playerX);
+        float dx = shift * world.chunkWidth();
+        originChunk += shift;
+        playerX -= dx;
+        prevPlayerX -= dx;
+        cameraX -= dx;
+        prevCameraX -= dx;
+        loadedFromX -= dx;
+        wallFrontierX -= dx;
+        obstacles1D.shift(dx);
+        tunnelObstacles.shift(dx);
+    }
+
+    private float clamp(float val, float min, float max) {
+        return Math.max(min, Math.min(max, val));
+    }
+
+    // ---- read-only state for front ends ----
+
+    public float getPlayerX() { return playerX; }
+    public float getPlayerY() { return playerY; }
+    public float getCameraX() { return cameraX; }
+    public float getTunnelHeight() { return tunnelHeight; }
+    public boolean isTarget2D() { return target2D; }
+    public long getSeed() { return world.seed(); }
+
+    // world position of the floating origin and of the player (the getters above are relative to it)
+    public double originX() { return (double) originChunk * world.chunkWidth(); }
+    public double worldPlayerX() { return originX() + playerX; }
+
+    long ticks() { return ticks; }
+    long collisions() { return collisions; }
+    long blockedTicks() { return blockedTicks; }
+    long ticks2D() { return ticks2D; }
+
+    public void setProfiler(FrameProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    // gameplay events (collisions, toggles, spawns, prunes, conversions) go here; EventBus.OFF by default
+    void setEvents(EventBus events) {
+        this.events = events;
+    }
+
+    // stops the chunk prefetch thread, if any
+    public void close() {
+        chunks.close();
+    }
+
+    // state blended between the previous and current step (alpha in 0..1)
+    public float lerpPlayerX(float alpha) { return lerp(prevPlayerX, playerX, alpha); }
+    public float lerpPlayerY(float alpha) { return lerp(prevPlayerY, playerY, alpha); }
+    public float lerpCameraX(float alpha) { return lerp(prevCameraX, cameraX, alpha); }
+    public float lerpTunnelHeight(float alpha) { return lerp(prevTunnelHeight, tunnelHeight, alpha); }
+
+    private static float lerp(float a, float b, float t) {
+        return a + (b - a) * t;
+    }
+
+    // values at the start of the last step (see RenderState)
+    float prevPlayerX() { return prevPlayerX; }
+    float prevPlayerY() { return prevPlayerY; }
+    float prevCameraX() { return prevCameraX; }
+    float prevTunnelHeight() { return prevTunnelHeight; }
+
+    // 64-bit hash of the gameplay state (player, camera, tunnel, mode, obstacles);
+    // recordings store it so a replay can prove it ended in the same place
+    public long stateChecksum() {
+        long h = 0xCBF29CE484222325L;
+        h = mixHash(h, Float.floatToIntBits(playerX));
+        h = mixHash(h, Float.floatToIntBits(playerY));
+        h = mixHash(h, Float.floatToIntBits(velX));
+        h = mixHash(h, Float.floatToIntBits(velY));
+        h = mixHash(h, Float.floatToIntBits(cameraX));
+        h = mixHash(h, Float.floatToIntBits(tunnelHeight));
+        h = mixHash(h, target2D ? 1 : 0);
+        h = mixHash(h, (int) originChunk);
+        h = mixHash(h, (int) (originChunk >>> 32));
+        h = hashObstacles(h, obstacles1D);
+        return hashObstacles(h, tunnelObstacles);
+    }
+
+    private static long hashObstacles(long h, ObstacleStore store) {
+        h = mixHash(h, store.size());
+        for (int i = 0; i < store.size(); i++) {
+            h = mixHash(h, Float.floatToIntBits(store.x(i)));
+            h = mixHash(h, Float.floatToIntBits(store.halfW(i)));
+            h = mixHash(h, store.isActive(i) ? 1 : 0);
+        }
+        return h;
+    }
+
+    private static long mixHash(long h, int value) {
+        return (h ^ (value & 0xFFFFFFFFL)) * 0x100000001B3L;
+    }
+
+    // ---- snapshots (header, then both stores back to back; see SnapshotRing) ----
+    // Only the gameplay state is stored: chunks are a cache over the seeded
+    // world generator and are rebuilt on demand after a restore.
+
+    private static final int SNAPSHOT_HEADER_BYTES = 80;
+    // room for this many obstacles per store to start with; bigger states grow the slots
+    static final int INITIAL_SNAPSHOT_BYTES = SNAPSHOT_HEADER_BYTES + 2 * ObstacleStore.snapshotBytes(512);
+
+    // bytes writeSnapshot needs for the current state
+    int snapshotBytes() {
+        return SNAPSHOT_HEADER_BYTES + obstacles1D.snapshotBytes() + tunnelObstacles.snapshotBytes();
+    }
+
+    // absolute writes of snapshotBytes() at offset `at`; returns the offset just past them
+    int writeSnapshot(ByteBuffer buf, int at) {
+        buf.putLong(at, getSeed());
+        buf.putFloat(at + 8, playerX);
+        buf.putFloat(at + 12, playerY);
+        buf.putFloat(at + 16, velX);
+        buf.putFloat(at + 20, velY);
+        buf.putFloat(at + 24, cameraX);
+        buf.putFloat(at + 28, tunnelHeight);
+        buf.putFloat(at + 32, prevPlayerX);
+        buf.putFloat(at + 36, prevPlayerY);
+        buf.putFloat(at + 40, prevCameraX);
+        buf.putFloat(at + 44, prevTunnelHeight);
+        buf.putInt(at + 48, target2D ? 1 : 0);
+        buf.putFloat(at + 52, loadedFromX);
+        buf.putFloat(at + 56, wallFrontierX);
+        buf.putLong(at + 64, next1DSlot);
+        buf.putLong(at + 72, originChunk);
+
+        return tunnelObstacles.writeSnapshot(buf, obstacles1D.writeSnapshot(buf, at + SNAPSHOT_HEADER_BYTES));
+    }
+
+    static long snapshotSeed(ByteBuffer buf, int at) {
+        return buf.getLong(at);
+    }
+
+    // restore a snapshot of this world (same seed) written by writeSnapshot; returns the offset past it
+    int readSnapshot(ByteBuffer buf, int at) {
+        long seed = snapshotSeed(buf, at);
+        if (seed != getSeed()) throw new IllegalArgumentException("Snapshot is from another world (seed " + seed + ")");
+        playerX = buf.getFloat(at + 8);
+        playerY = buf.getFloat(at + 12);
+        velX = buf.getFloat(at + 16);
+        velY = buf.getFloat(at + 20);
+        cameraX = buf.getFloat(at + 24);
+        tunnelHeight = buf.getFloat(at + 28);
+        prevPlayerX = buf.getFloat(at + 32);
+        prevPlayerY = buf.getFloat(at + 36);
+        prevCameraX = buf.getFloat(at + 40);
+        prevTunnelHeight = buf.getFloat(at + 44);
+        target2D = buf.getInt(at + 48) != 0;
+        loadedFromX = buf.getFloat(at + 52);
+        wallFrontierX = buf.getFloat(at + 56);
+        next1DSlot = buf.getLong(at + 64);
+        originChunk = buf.getLong(at + 72);
+
+        int end = tunnelObstacles.readSnapshot(buf, obstacles1D.readSnapshot(buf, at + SNAPSHOT_HEADER_BYTES));
+        chunks.prefetch(chunkAt(playerX));
+        return end;
+    }
+
+    // benchmarks / tools: move the player (and camera) without simulating the way there
+    void placePlayer(float x) {
+        playerX = x;
+        cameraX = x;
+        velX = 0f;
+        savePreviousState();
+    }
+
+    // tools: start over at a world position, as if the game had begun there (empty
+    // lists; the world around it is loaded as the player moves)
+    void teleport(double worldX) {
+        originChunk = (long) Math.floor(worldX / world.chunkWidth());
+        playerX = (float) (worldX - originX());
+        playerY = 0f;
+        velX = 0f;
+        velY = 0f;
+        cameraX = playerX;
+        obstacles1D.clear();
+        tunnelObstacles.clear();
+        next1DSlot = slotAtOrAfter(playerX);
+        loadedFromX = cameraX - 6f;
+        wallFrontierX = playerX;
+        savePreviousState();
+        chunks.prefetch(chunkAt(playerX));
+    }
+
+    ObstacleStore obstacles1D() { return obstacles1D; }
+    ObstacleStore tunnelObstacles() { return tunnelObstacles; }
+}
@@ -0,0 +1,231 @@
+package com.copicraftDev;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+// Runs a Simulation at a fixed tick on its own thread and publishes a
+// RenderState after every batch of ticks through a TripleBuffer, so a slow
+// swap on the GL thread never holds up physics and the other way round.
+//
+// Everything that touches the Simulation happens on this thread: ticks,
+// the rewind history, and quick save/load (requested from the GL thread,
+// carried out between ticks).
+final class SimulationThread {
+
+    // Rewind history: a snapshot every SNAPSHOT_INTERVAL ticks, ~10 s deep at 60 Hz;
+    // rewinding restores one every SNAPSHOT_INTERVAL ticks, so it plays back at real speed
+    private static final int SNAPSHOT_INTERVAL = 4;
+    private static final int HISTORY_SNAPSHOTS = 150;
+
+    // quick save file: int magic 'DXSN', int version, int snapshot length, then the snapshot
+    private static final int SAVE_MAGIC = 0x4458534E;
+    private static final int SAVE_VERSION = 3;
+    private static final int SAVE_HEADER_BYTES = 12;
+
+    private final Simulation sim;
+    private final FrameClock clock;
+    private final FrameProfiler profiler;
+    private final TripleBuffer<RenderState> states =
+            new TripleBuffer<>(new RenderState(), new RenderState(), new RenderState());
+
+    // tick-phase percentiles handed to the GL thread with each state, refreshed every PROFILE_TICKS
+    private static final int PROFILE_TICKS = 15;
+    private final long[] phaseP50 = new long[FrameProfiler.PHASE_COUNT];
+    private final long[] phaseP99 = new long[FrameProfiler.PHASE_COUNT];
+    private int ticksSinceProfile = 0;
+
+    private final SnapshotRing history = new SnapshotRing(HISTORY_SNAPSHOTS, Simulation.INITIAL_SNAPSHOT_BYTES);
+    private int ticksSinceSnapshot = 0;
+    private int rewindTicks = 0;
+    // grown like the history slots when a save doesn't fit
+    private ByteBuffer saveBuffer = ByteBuffer.allocateDirect(SAVE_HEADER_BYTES + Simulation.INITIAL_SNAPSHOT_BYTES);
+
+    private final Thread thread;
+    private volatile boolean running = true;
+    private volatile boolean rewinding = false;
+    private final AtomicReference<Path> saveRequest = new AtomicReference<>();
+    private final AtomicReference<Path> loadRequest = new AtomicReference<>();
+    // second consumer of the published states (SpectatorServer); set before start()
+    private TripleBuffer<RenderState> spectatorFeed = null;
+
+    // profiler: recorded into on this thread only (see FrameProfiler)
+    SimulationThread(Simulation sim, FrameClock clock, FrameProfiler profiler) {
+        this.sim = sim;
+        this.clock = clock;
+        this.profiler = profiler;
+        // something valid to draw before the first tick
+        states.back().capture(sim, System.nanoTime(), clock.tickNanos());
+        states.publish();
+        this.thread = new Thread(this::run, "simulation");
+        thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    // stop ticking and wait for the thread; the Simulation may be read afterwards
+    void stop() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    void setSpectatorFeed(TripleBuffer<RenderState> feed) {
+        this.spectatorFeed = feed;
+    }
+
+    // ---- GL thread side ----
+
+    RenderState latest() {
+        return states.acquire();
+    }
+
+    // while set, each due tick steps back one snapshot instead of simulating
+    void setRewinding(boolean rewinding) {
+        this.rewinding = rewinding;
+    }
+
+    void requestSave(Path file) {
+        saveRequest.set(file);
+    }
+
+    void requestLoad(Path file) {
+        loadRequest.set(file);
+    }
+
+    // ---- simulation thread ----
+
+    private void run() {
+        clock.reset(System.nanoTime());
+        while (running) {
+            handleRequests();
+
+            int steps = clock.advance(System.nanoTime());
+            if (steps > 0) {
+                for (int i = 0; i < steps; i++) {
+                    long t = profiler.start();
+                    if (rewinding) rewindTick();
+                    else tick(clock.tickSeconds());
+                    profiler.lap(FrameProfiler.TICKS, t);
+                }
+                if (profiler.isEnabled() && (ticksSinceProfile += steps) >= PROFILE_TICKS) {
+                    profiler.percentiles(phaseP50, phaseP99);
+                    ticksSinceProfile = 0;
+                }
+                RenderState state = states.back();
+                state.capture(sim, clock.lastTickTime(), clock.tickNanos());
+                state.captureProfile(phaseP50, phaseP99);
+                states.publish();
+                if (spectatorFeed != null) {
+                    spectatorFeed.back().capture(sim, clock.lastTickTime(), clock.tickNanos());
+                    spectatorFeed.publish();
+                }
+            }
+            LockSupport.parkNanos(clock.nanosUntilNextTick());
+        }
+    }
+
+    private void tick(float dt) {
+        sim.step(dt);
+        rewindTicks = 0;
+        if (++ticksSinceSnapshot >= SNAPSHOT_INTERVAL) {
+            ticksSinceSnapshot = 0;
+            if (history.ensureSlotBytes(sim.snapshotBytes())) {
+                System.out.println("Rewind history grown to " + history.slotBytes() / 1024 + " KB per snapshot");
+            }
+            sim.writeSnapshot(history.buffer(), history.nextOffset());
+            history.push();
+        }
+    }
+
+    // steps back one snapshot on the first rewind tick and every SNAPSHOT_INTERVAL after;
+    // once the history runs out the game stays on its oldest snapshot
+    private void rewindTick() {
+        if (rewindTicks++ % SNAPSHOT_INTERVAL != 0) return;
+        int at = history.popNewest();
+        if (at < 0) return;
+        sim.readSnapshot(history.buffer(), at);
+        ticksSinceSnapshot = 0;
+    }
+
+    private void handleRequests() {
+        Path save = saveRequest.getAndSet(null);
+        if (save != null) {
+            try {
+                save(save);
+                System.out.println("Saved to " + save);
+            } catch (IOException e) {
+                System.out.println("Could not save: " + e.getMessage());
+            }
+        }
+        Path load = loadRequest.getAndSet(null);
+        if (load != null) {
+            try {
+                load(load);
+                System.out.println("Loaded " + load);
+            } catch (IOException | IllegalArgumentException e) {
+                System.out.println("Could not load: " + e.getMessage());
+            }
+        }
+    }
+
+    private void save(Path file) throws IOException {
+        int length = sim.snapshotBytes();
+        ensureSaveBuffer(SAVE_HEADER_BYTES + length);
+        sim.writeSnapshot(saveBuffer, SAVE_HEADER_BYTES);
+        saveBuffer.putInt(0, SAVE_MAGIC).putInt(4, SAVE_VERSION).putInt(8, length);
+        saveBuffer.clear().limit(SAVE_HEADER_BYTES + length);
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (saveBuffer.hasRemaining()) ch.write(saveBuffer);
+        }
+    }
+
+    private void load(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            saveBuffer.clear().limit(SAVE_HEADER_BYTES);
+            while (saveBuffer.hasRemaining() && ch.read(saveBuffer) >= 0) { }
+            checkSaveHeader(saveBuffer, file, SAVE_HEADER_BYTES);
+            int length = saveBuffer.getInt(8);
+            if (length <= 0 || length > ch.size() - SAVE_HEADER_BYTES) throw new IOException("Truncated save: " + file);
+            ensureSaveBuffer(SAVE_HEADER_BYTES + length);
+            saveBuffer.clear().position(SAVE_HEADER_BYTES).limit(SAVE_HEADER_BYTES + length);
+            while (saveBuffer.hasRemaining() && ch.read(saveBuffer) >= 0) { }
+            if (saveBuffer.hasRemaining()) throw new IOException("Truncated save: " + file);
+        }
+        sim.readSnapshot(saveBuffer, SAVE_HEADER_BYTES);
+        // the old history belongs to another timeline
+        history.clear();
+        ticksSinceSnapshot = 0;
+        clock.reset(System.nanoTime());
+    }
+
+    private void ensureSaveBuffer(int bytes) {
+        if (saveBuffer.capacity() < bytes) saveBuffer = ByteBuffer.allocateDirect(bytes);
+    }
+
+    // the world seed a save belongs to; loading needs a Simulation with that seed
+    static long savedSeed(Path file) throws IOException {
+        ByteBuffer head = ByteBuffer.allocate(SAVE_HEADER_BYTES + 8);
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (head.hasRemaining() && ch.read(head) >= 0) { }
+        }
+        checkSaveHeader(head, file, head.capacity());
+        return Simulation.snapshotSeed(head, SAVE_HEADER_BYTES);
+    }
+
+    private static void checkSaveHeader(ByteBuffer buf, Path file, int minBytes) throws IOException {
+        if (buf.position() < minBytes || buf.getInt(0) != SAVE_MAGIC) throw new IOException("Not a save: " + file);
+        if (buf.getInt(4) != SAVE_VERSION) throw new IOException("Unsupported save version " + buf.getInt(4));
+    }
+}
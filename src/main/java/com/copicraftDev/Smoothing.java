@@ -0,0 +1,45 @@
+package com.copicraftDev;
+
+// Exponential smoothing factors, 1 - e^(-speed * dt), computed once per
+// (speed, dt) pair. The game only uses a handful of speeds and a fixed dt, so
+// after the first tick every lookup is a short scan of a few floats instead
+// of a Math.exp.
+//
+// Values moving toward a target count as settled once they are within
+// EPSILON of it; callers snap them to the target and stop updating them.
+final class Smoothing {
+
+    // world units; a fraction of a pixel at any window size the game supports
+    static final float EPSILON = 1e-4f;
+
+    private static final int MAX_SPEEDS = 8;
+
+    private final float[] speeds = new float[MAX_SPEEDS];
+    private final float[] factors = new float[MAX_SPEEDS];
+    private int count = 0;
+    private float dt = Float.NaN;
+
+    // the cached factors are only valid for one dt; a different one starts over
+    void beginTick(float dt) {
+        if (dt == this.dt) return;
+        this.dt = dt;
+        count = 0;
+    }
+
+    float factor(float speed) {
+        for (int i = 0; i < count; i++) {
+            if (speeds[i] == speed) return factors[i];
+        }
+        float f = 1f - (float) Math.exp(-speed * dt);
+        if (count < MAX_SPEEDS) {
+            speeds[count] = speed;
+            factors[count] = f;
+            count++;
+        }
+        return f;
+    }
+
+    static boolean settled(float value, float target) {
+        return Math.abs(target - value) <= EPSILON;
+    }
+}
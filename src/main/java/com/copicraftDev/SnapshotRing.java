@@ -0,0 +1,66 @@
+package com.copicraftDev;
+
+import java.nio.ByteBuffer;
+
+// Fixed-size off-heap ring of state snapshots, newest overwriting oldest.
+// Each slot is slotBytes at a fixed offset in one direct buffer; writers and
+// readers use absolute ByteBuffer access at that offset, so recording and
+// restoring never allocate. A snapshot that doesn't fit doubles the slots
+// first (ensureSlotBytes), the one time that allocates.
+final class SnapshotRing {
+
+    private ByteBuffer buffer;
+    private final int capacity;
+    private int slotBytes;
+    private int next = 0; // slot the next push writes
+    private int size = 0;
+
+    SnapshotRing(int capacity, int slotBytes) {
+        if (capacity <= 0 || slotBytes <= 0) throw new IllegalArgumentException("empty snapshot ring");
+        if ((long) capacity * slotBytes > Integer.MAX_VALUE) throw new IllegalArgumentException("snapshot ring too large");
+        this.capacity = capacity;
+        this.slotBytes = slotBytes;
+        this.buffer = ByteBuffer.allocateDirect(capacity * slotBytes);
+    }
+
+    ByteBuffer buffer() { return buffer; }
+    int slotBytes() { return slotBytes; }
+    int size() { return size; }
+    int capacity() { return capacity; }
+
+    // grow the slots (doubling) until one holds `bytes`, keeping the snapshots; false if they already did
+    boolean ensureSlotBytes(int bytes) {
+        if (bytes <= slotBytes) return false;
+        int grown = slotBytes;
+        while (grown < bytes) grown <<= 1;
+        if (grown <= 0 || (long) capacity * grown > Integer.MAX_VALUE) throw new IllegalArgumentException("snapshot ring too large");
+        ByteBuffer bigger = ByteBuffer.allocateDirect(capacity * grown);
+        for (int i = 0; i < capacity; i++) bigger.put(i * grown, buffer, i * slotBytes, slotBytes);
+        buffer = bigger;
+        slotBytes = grown;
+        return true;
+    }
+
+    // where the next snapshot goes (the oldest one when full); call push() once it is written
+    int nextOffset() {
+        return next * slotBytes;
+    }
+
+    void push() {
+        next = next + 1 == capacity ? 0 : next + 1;
+        if (size < capacity) size++;
+    }
+
+    // removes the newest snapshot and returns its offset; -1 when empty
+    int popNewest() {
+        if (size == 0) return -1;
+        next = next == 0 ? capacity - 1 : next - 1;
+        size--;
+        return next * slotBytes;
+    }
+
+    void clear() {
+        next = 0;
+        size = 0;
+    }
+}
@@ -0,0 +1,214 @@
+package com.copicraftDev;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Headless soak test: drives one BotInput session through hours of game time
+// as fast as the CPU allows, ticking and drawing every frame (into a GL
+// backend that draws nothing), and samples at fixed intervals of game time:
+//
+//   distance covered, live obstacle counts, heap after GC, bytes allocated
+//   per frame, frame time p50 / p99 / max
+//
+//   java -cp ... com.copicraftDev.Soak --hours 24 --sample-minutes 10
+//
+// --start-x starts the session that far out (e.g. 1e9) to check that play is
+// the same at any distance from the start (see Simulation's floating origin).
+//
+// The first sample is JIT warm-up; the second is the baseline that heap and
+// frame-time growth are measured against. Exits with status 1 as soon as a
+// sample goes over a bound, so anything that creeps up over a long session
+// (lists not pruned, leaks, per-frame cost drifting) fails the run.
+public final class Soak {
+
+    // frame times below this are noise; growth is measured against at least this much
+    private static final long MIN_BASELINE_NANOS = 20_000L;
+
+    private final long seed;
+    private final long ticks;
+    private final long sampleTicks;
+    private final double startX;
+
+    // bounds
+    private final int maxObstacles;        // per list
+    private final double maxHeapGrowthMb;
+    private final double maxAllocPerFrame; // bytes, averaged over a sample interval
+    private final double maxFrameGrowth;   // p99 vs the baseline sample
+    private final double minProgress;      // distance per sample vs the baseline sample
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    Soak(long seed, long ticks, long sampleTicks, double startX, int maxObstacles,
+         double maxHeapGrowthMb, double maxAllocPerFrame, double maxFrameGrowth, double minProgress) {
+        if (ticks <= 0 || sampleTicks <= 0) throw new IllegalArgumentException("ticks and sample interval must be > 0");
+        this.seed = seed;
+        this.ticks = ticks;
+        this.sampleTicks = sampleTicks;
+        this.startX = startX;
+        this.maxObstacles = maxObstacles;
+        this.maxHeapGrowthMb = maxHeapGrowthMb;
+        this.maxAllocPerFrame = maxAllocPerFrame;
+        this.maxFrameGrowth = maxFrameGrowth;
+        this.minProgress = minProgress;
+    }
+
+    // one row of the report
+    static final class Sample {
+        final double minutes;
+        final double playerX;
+        final double progress;   // distance since the previous sample
+        final int obstacles1D;
+        final int walls;
+        final long heapBytes;
+        final double allocPerFrame;
+        final long frameP50;
+        final long frameP99;
+        final long frameMax;
+
+        Sample(double minutes, double playerX, double progress, int obstacles1D, int walls, long heapBytes,
+               double allocPerFrame, long frameP50, long frameP99, long frameMax) {
+            this.minutes = minutes;
+            this.playerX = playerX;
+            this.progress = progress;
+            this.obstacles1D = obstacles1D;
+            this.walls = walls;
+            this.heapBytes = heapBytes;
+            this.allocPerFrame = allocPerFrame;
+            this.frameP50 = frameP50;
+            this.frameP99 = frameP99;
+            this.frameMax = frameMax;
+        }
+
+        static String header() {
+            return "minutes,player_x,progress,obstacles_1d,walls,heap_mb,alloc_per_frame,frame_p50_us,frame_p99_us,frame_max_us";
+        }
+
+        String row() {
+            return String.format(Locale.ROOT, "%.1f,%.1f,%.1f,%d,%d,%.2f,%.1f,%.2f,%.2f,%.2f",
+                    minutes, playerX, progress, obstacles1D, walls, heapBytes / 1e6, allocPerFrame,
+                    frameP50 / 1e3, frameP99 / 1e3, frameMax / 1e3);
+        }
+    }
+
+    // runs the session, printing one row per sample; the bounds that were broken (empty if none)
+    List<String> run() {
+        FrameClock clock = new FrameClock(60, 1);
+        float dt = clock.tickSeconds();
+        BotInput bot = new BotInput();
+        // chunks generated inline, so every allocation happens on this thread and is counted
+        Simulation sim = new Simulation(bot, seed, false);
+        if (startX != 0.0) sim.teleport(startX);
+        bot.attach(sim);
+        GameRenderer renderer = new GameRenderer(new GlState(new CountingGlBackend()), FrameProfiler.OFF);
+        RenderState state = new RenderState();
+        Histogram frames = new Histogram();
+        List<String> failures = new ArrayList<>();
+        Sample baseline = null;
+        long tid = Thread.currentThread().threadId();
+        double lastX = sim.worldPlayerX();
+
+        System.out.println(Sample.header());
+        long allocStart = threads.getThreadAllocatedBytes(tid);
+        for (long t = 1; t <= ticks; t++) {
+            long start = System.nanoTime();
+            sim.step(dt);
+            state.capture(sim, start, clock.tickNanos());
+            renderer.renderFrame(state, start);
+            frames.record(System.nanoTime() - start);
+
+            if (t % sampleTicks != 0) continue;
+            double allocPerFrame = (threads.getThreadAllocatedBytes(tid) - allocStart) / (double) sampleTicks;
+            double x = sim.worldPlayerX();
+            Sample s = new Sample(t / 3600.0, x, x - lastX, sim.obstacles1D().size(), sim.tunnelObstacles().size(),
+                    heapAfterGc(), allocPerFrame, frames.percentile(0.50), frames.percentile(0.99), frames.max());
+            System.out.println(s.row());
+            lastX = x;
+
+            long index = t / sampleTicks;
+            if (index == 2) baseline = s;
+            if (index >= 2) check(s, baseline, failures);
+            if (!failures.isEmpty()) break;
+
+            frames.reset();
+            allocStart = threads.getThreadAllocatedBytes(tid); // after the GC and printing above
+        }
+        renderer.dispose();
+        sim.close();
+        return failures;
+    }
+
+    private void check(Sample s, Sample baseline, List<String> failures) {
+        String at = String.format(Locale.ROOT, " at %.1f min", s.minutes);
+        if (s.progress < baseline.progress * minProgress) {
+            failures.add(String.format(Locale.ROOT, "covered %.1f units < %.0f%% of the baseline's %.1f%s",
+                    s.progress, minProgress * 100, baseline.progress, at));
+        }
+        if (s.obstacles1D > maxObstacles) failures.add(s.obstacles1D + " live 1D obstacles > " + maxObstacles + at);
+        if (s.walls > maxObstacles) failures.add(s.walls + " live walls > " + maxObstacles + at);
+        double heapGrowthMb = (s.heapBytes - baseline.heapBytes) / 1e6;
+        if (heapGrowthMb > maxHeapGrowthMb) {
+            failures.add(String.format(Locale.ROOT, "heap after GC grew %.1f MB > %.1f MB%s", heapGrowthMb, maxHeapGrowthMb, at));
+        }
+        if (s.allocPerFrame > maxAllocPerFrame) {
+            failures.add(String.format(Locale.ROOT, "%.1f bytes allocated per frame > %.1f%s", s.allocPerFrame, maxAllocPerFrame, at));
+        }
+        double frameLimit = Math.max(baseline.frameP99, MIN_BASELINE_NANOS) * maxFrameGrowth;
+        if (s.frameP99 > frameLimit) {
+            failures.add(String.format(Locale.ROOT, "frame p99 %.2f us > %.1fx baseline (%.2f us)%s",
+                    s.frameP99 / 1e3, maxFrameGrowth, baseline.frameP99 / 1e3, at));
+        }
+    }
+
+    private long heapAfterGc() {
+        // two rounds so objects with finalizers/cleaners queued by the first are gone too
+        System.gc();
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    public static void main(String[] args) {
+        double hours = 24;
+        double sampleMinutes = 10;
+        long seed = 1L;
+        int maxObstacles = 512; // live per store; a few dozen in normal play
+        double maxHeapGrowthMb = 32;
+        double maxAllocPerFrame = 64;
+        double maxFrameGrowth = 3.0;
+        double minProgress = 0.5;
+        double startX = 0.0;
+        for (int i = 0; i < args.length; i++) {
+            String a = args[i];
+            if (i + 1 >= args.length) throw new IllegalArgumentException("Missing value for " + a);
+            String v = args[++i];
+            switch (a) {
+                case "--hours": hours = Double.parseDouble(v); break;
+                case "--sample-minutes": sampleMinutes = Double.parseDouble(v); break;
+                case "--seed": seed = Long.parseLong(v); break;
+                case "--max-obstacles": maxObstacles = Integer.parseInt(v); break;
+                case "--max-heap-growth-mb": maxHeapGrowthMb = Double.parseDouble(v); break;
+                case "--max-alloc-per-frame": maxAllocPerFrame = Double.parseDouble(v); break;
+                case "--max-frame-growth": maxFrameGrowth = Double.parseDouble(v); break;
+                case "--min-progress": minProgress = Double.parseDouble(v); break;
+                case "--start-x": startX = Double.parseDouble(v); break;
+                default: throw new IllegalArgumentException("Unknown option " + a);
+            }
+        }
+
+        // game time at 60 ticks (frames) per second
+        Soak soak = new Soak(seed, Math.round(hours * 3600 * 60), Math.max(1, Math.round(sampleMinutes * 60 * 60)),
+                startX, maxObstacles, maxHeapGrowthMb, maxAllocPerFrame, maxFrameGrowth, minProgress);
+        long start = System.nanoTime();
+        List<String> failures = soak.run();
+        System.err.printf(Locale.ROOT, "Soaked %.1f h of game time in %.1f s%n", hours, (System.nanoTime() - start) / 1e9);
+        if (!failures.isEmpty()) {
+            for (String f : failures) System.err.println("FAIL: " + f);
+            System.exit(1);
+        }
+        System.err.println("All samples within bounds");
+    }
+}
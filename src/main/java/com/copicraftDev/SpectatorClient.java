@@ -0,0 +1,142 @@
+package com.copicraftDev;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Locale;
+
+// Receives a SpectatorServer stream on its own thread and publishes each
+// decoded frame through a TripleBuffer, the way SimulationThread does for a
+// local game, so GameRenderer draws it unchanged.
+//
+// -Dde.spectate=<host>:<port> in Main.
+final class SpectatorClient {
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+    private static final long THROTTLE_PERIOD_MILLIS = 100;
+
+    private final SocketChannel channel;
+    private final long tickNanos;
+    private final int throttleBytes; // > 0: a deliberately slow reader taking this much per THROTTLE_PERIOD (see SpectatorLoad)
+    private final TripleBuffer<RenderState> states =
+            new TripleBuffer<>(new RenderState(), new RenderState(), new RenderState());
+    private final SpectatorProtocol.Decoder decoder = new SpectatorProtocol.Decoder();
+    private final ByteBuffer in = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    // client thread only (read after close)
+    private long bytesReceived = 0;
+    private long frames = 0;
+    private long keyframes = 0;
+    private long framesIgnored = 0; // deltas that arrived out of sync
+    private long connectedAt;
+    private long closedAt;
+
+    // bytesPerSecond > 0 reads no faster than that
+    SpectatorClient(InetSocketAddress address, long tickNanos, int receiveBufferBytes, int bytesPerSecond) throws IOException {
+        this.tickNanos = tickNanos;
+        this.throttleBytes = bytesPerSecond > 0 ? Math.max(1, (int) (bytesPerSecond * THROTTLE_PERIOD_MILLIS / 1000)) : 0;
+        channel = SocketChannel.open();
+        if (receiveBufferBytes > 0) channel.setOption(StandardSocketOptions.SO_RCVBUF, receiveBufferBytes);
+        channel.connect(address);
+        thread = new Thread(this::run, "spectator-client");
+        thread.setDaemon(true);
+    }
+
+    // "host:port"
+    static InetSocketAddress parseAddress(String hostPort) {
+        int colon = hostPort.lastIndexOf(':');
+        if (colon < 0) throw new IllegalArgumentException("Expected <host>:<port>, got " + hostPort);
+        return new InetSocketAddress(hostPort.substring(0, colon), Integer.parseInt(hostPort.substring(colon + 1)));
+    }
+
+    void start() {
+        connectedAt = System.nanoTime();
+        thread.start();
+    }
+
+    // the latest decoded frame (empty until the first keyframe)
+    RenderState latest() {
+        return states.acquire();
+    }
+
+    // stop reading, wait for the thread, disconnect
+    void close() {
+        running = false;
+        try {
+            channel.close(); // wakes a blocked read
+            thread.join();
+        } catch (IOException ignored) {
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                if (throttleBytes > 0) in.limit(Math.min(in.capacity(), in.position() + throttleBytes));
+                int n = channel.read(in);
+                if (n < 0) break;
+                bytesReceived += n;
+                in.flip();
+                if (decodeFrames()) {
+                    decoder.copyTo(states.back(), System.nanoTime(), tickNanos);
+                    states.publish();
+                }
+                in.compact();
+                if (throttleBytes > 0) Thread.sleep(THROTTLE_PERIOD_MILLIS);
+            }
+        } catch (IOException | InterruptedException e) {
+            if (running) System.out.println("Spectator stream ended: " + e.getMessage());
+        } catch (RuntimeException e) {
+            // a frame that doesn't decode (too large, truncated, unknown type): nothing after it can be trusted
+            System.out.println("Spectator stream ended: bad frame (" + e + ")");
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+        }
+        closedAt = System.nanoTime();
+    }
+
+    // every complete frame in the buffer; true if the state changed
+    private boolean decodeFrames() {
+        boolean changed = false;
+        while (in.remaining() >= 4) {
+            int length = in.getInt(in.position());
+            if (length < SpectatorProtocol.HEADER_BYTES - 4 || length + 4 > in.capacity()) {
+                throw new IllegalStateException("Frame of " + length + " bytes");
+            }
+            if (in.remaining() < length + 4) break;
+            int end = in.position() + 4 + length;
+            int limit = in.limit();
+            in.position(in.position() + 4).limit(end); // a body that claims more than its frame underflows
+            boolean key = in.get(in.position()) == SpectatorProtocol.KEYFRAME;
+            if (decoder.apply(in)) {
+                frames++;
+                if (key) keyframes++;
+                changed = true;
+            } else {
+                framesIgnored++;
+            }
+            in.limit(limit).position(end);
+        }
+        return changed && decoder.synced();
+    }
+
+    SpectatorProtocol.Quantized state() { return decoder.state(); }
+    long bytesReceived() { return bytesReceived; }
+    long frames() { return frames; }
+    long keyframes() { return keyframes; }
+    long framesIgnored() { return framesIgnored; }
+
+    String summary() {
+        double seconds = Math.max(1e-9, ((closedAt != 0 ? closedAt : System.nanoTime()) - connectedAt) / 1e9);
+        return String.format(Locale.ROOT, "Spectated %.1f s: %d frames (%d keyframes), %.1f KB, %.0f B/s",
+                seconds, frames, keyframes, bytesReceived / 1e3, bytesReceived / seconds);
+    }
+}
@@ -0,0 +1,115 @@
+package com.copicraftDev;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Loopback load test for the spectator stream: a bot game ticks on its own
+// simulation thread, streams through a SpectatorServer, and --clients
+// SpectatorClients (plus --slow ones that read far slower than the stream
+// comes in, through a tiny socket buffer) decode it.
+//
+//   java -cp ... com.copicraftDev.SpectatorLoad --clients 64 --seconds 20 --slow 2
+//
+// Reports bandwidth per client and the server's CPU per frame, split into
+// encoding (once per frame, whatever the number of clients) and sending.
+// Exits with status 1 if a client that kept up doesn't end on exactly the
+// game's final state or had to skip, or the slow ones never did.
+public final class SpectatorLoad {
+
+    private static final int SLOW_RECEIVE_BUFFER = 4096;
+    private static final int SLOW_BYTES_PER_SECOND = 300; // the stream is ~1 KB/s
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int clients = 8;
+        int slow = 0;
+        double seconds = 20;
+        long seed = 1L;
+        for (int i = 0; i < args.length; i++) {
+            String a = args[i];
+            if (i + 1 >= args.length) throw new IllegalArgumentException("Missing value for " + a);
+            String v = args[++i];
+            switch (a) {
+                case "--clients": clients = Integer.parseInt(v); break;
+                case "--slow": slow = Integer.parseInt(v); break;
+                case "--seconds": seconds = Double.parseDouble(v); break;
+                case "--seed": seed = Long.parseLong(v); break;
+                default: throw new IllegalArgumentException("Unknown option " + a);
+            }
+        }
+
+        FrameClock clock = new FrameClock(60, 5);
+        BotInput bot = new BotInput();
+        Simulation sim = new Simulation(bot, seed, true);
+        bot.attach(sim);
+        SimulationThread game = new SimulationThread(sim, clock, FrameProfiler.OFF);
+        SpectatorServer server = new SpectatorServer(0);
+        game.setSpectatorFeed(server.feed());
+        server.start();
+
+        InetSocketAddress address = new InetSocketAddress("127.0.0.1", server.port());
+        List<SpectatorClient> all = new ArrayList<>();
+        for (int i = 0; i < clients + slow; i++) {
+            boolean isSlow = i >= clients;
+            SpectatorClient c = new SpectatorClient(address, clock.tickNanos(),
+                    isSlow ? SLOW_RECEIVE_BUFFER : 0, isSlow ? SLOW_BYTES_PER_SECOND : 0);
+            c.start();
+            all.add(c);
+        }
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (server.clientCount() < all.size() && System.nanoTime() < deadline) Thread.sleep(10);
+
+        game.start();
+        Thread.sleep((long) (seconds * 1000));
+        game.stop();
+        Thread.sleep(500); // the last frame reaches everyone who is keeping up
+        server.stop();
+        for (SpectatorClient c : all) c.close();
+        sim.close();
+
+        long frames = Math.max(1, server.frames());
+        System.out.printf(Locale.ROOT, "%d clients (%d slow), %d frames: %.0f B/s per client, %.1f B per frame per client%n",
+                all.size(), slow, server.frames(), server.bytesSent() / seconds / all.size(),
+                server.bytesSent() / (double) Math.max(1, server.clientFrames()));
+        System.out.printf(Locale.ROOT, "server CPU: encode %.2f us/frame (%d keyframes), send %.2f us/frame = %.2f us per client%n",
+                server.encodeCpuNanos() / 1e3 / frames, server.keyframesEncoded(),
+                server.sendCpuNanos() / 1e3 / frames, server.sendCpuNanos() / 1e3 / frames / all.size());
+
+        List<String> failures = new ArrayList<>();
+        // what the last published frame was: the game's state when it stopped
+        RenderState last = new RenderState();
+        last.capture(sim, 0L, clock.tickNanos());
+        SpectatorProtocol.Quantized expected = new SpectatorProtocol.Quantized();
+        expected.capture(last);
+        for (int i = 0; i < all.size(); i++) {
+            SpectatorClient c = all.get(i);
+            boolean isSlow = i >= clients;
+            if (i == 0 || i == clients) System.out.println((isSlow ? "slow" : "client") + " " + i + ": " + c.summary());
+            SpectatorProtocol.Quantized q = c.state();
+            if (!isSlow && !same(q, expected)) failures.add("client " + i + " did not end on the game's final state");
+            if (!isSlow && c.keyframes() != 1) failures.add("client " + i + " fell behind (" + c.keyframes() + " keyframes)");
+            if (c.framesIgnored() > 0) failures.add("client " + i + " got " + c.framesIgnored() + " deltas out of sequence");
+        }
+        System.out.println("server: " + server.framesSkipped() + " frames skipped");
+        if (slow > 0 && server.framesSkipped() == 0) failures.add("the slow clients never had frames skipped");
+        if (!failures.isEmpty()) {
+            for (String f : failures) System.out.println("FAIL: " + f);
+            System.exit(1);
+        }
+    }
+
+    private static boolean same(SpectatorProtocol.Quantized a, SpectatorProtocol.Quantized b) {
+        return a.origin == b.origin && a.playerX == b.playerX && a.playerY == b.playerY && a.cameraX == b.cameraX
+                && a.tunnelHeight == b.tunnelHeight && same(a.obstacles1D, b.obstacles1D) && same(a.walls, b.walls);
+    }
+
+    private static boolean same(SpectatorProtocol.Obstacles a, SpectatorProtocol.Obstacles b) {
+        if (a.count != b.count) return false;
+        for (int i = 0; i < a.count; i++) {
+            if (a.x[i] != b.x[i] || a.halfW[i] != b.halfW[i]) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,334 @@
+package com.copicraftDev;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// Wire format of the spectator stream (SpectatorServer -> SpectatorClient).
+//
+// Each frame is [int length][byte type][int frame number][body], length
+// counting everything after itself. Positions are quantized to 1/SCALE of a
+// world unit (well under a pixel) relative to the simulation's floating
+// origin, and written as zigzag varints:
+//
+//   KEYFRAME  double origin; player x, y, camera x, tunnel height;
+//             per obstacle list (1D, walls): count, then x (delta from the
+//             previous x) and half-width for each
+//   DELTA     change of player x, y, camera x, tunnel height; per list an
+//             edit script against the previous frame's list (see diff)
+//
+// A delta only applies on top of the frame right before it. Keyframes are
+// sent to new clients, to clients that had to skip a frame, and to everyone
+// when the origin moves (every position changes then).
+final class SpectatorProtocol {
+
+    static final byte KEYFRAME = 1;
+    static final byte DELTA = 2;
+    static final int HEADER_BYTES = 9;
+    static final float SCALE = 4096f;
+
+    // edit script ops, (run << 2) | op; a list's script ends with END, which keeps the rest
+    private static final int END = 0;
+    private static final int KEEP = 1; // next run entries unchanged
+    private static final int DROP = 2; // next run entries removed
+    private static final int EDIT = 3; // run = 1: insert (x, half-width); run = 2: next entry's half-width changes
+
+    private SpectatorProtocol() {
+    }
+
+    static int quantize(float v) {
+        return Math.round(v * SCALE);
+    }
+
+    // one quantized frame; lists are sorted by x like the ObstacleStores they come from
+    static final class Quantized {
+        double origin;
+        int playerX, playerY, cameraX, tunnelHeight;
+        final Obstacles obstacles1D = new Obstacles();
+        final Obstacles walls = new Obstacles();
+
+        void capture(RenderState s) {
+            origin = s.originX;
+            playerX = quantize(s.playerX);
+            playerY = quantize(s.playerY);
+            cameraX = quantize(s.cameraX);
+            tunnelHeight = quantize(s.tunnelHeight);
+            obstacles1D.capture(s.obstacles1D);
+            walls.capture(s.walls);
+        }
+    }
+
+    static final class Obstacles {
+        int count;
+        int[] x = new int[64];
+        int[] halfW = new int[64];
+
+        void capture(RenderState.Obstacles o) {
+            ensure(o.count);
+            for (int i = 0; i < o.count; i++) {
+                x[i] = quantize(o.x[i]);
+                halfW[i] = quantize(o.halfW[i]);
+            }
+            count = o.count;
+        }
+
+        void copyTo(RenderState.Obstacles o) {
+            if (o.x.length < count) {
+                o.x = new float[x.length];
+                o.halfW = new float[x.length];
+            }
+            for (int i = 0; i < count; i++) {
+                o.x[i] = x[i] / SCALE;
+                o.halfW[i] = halfW[i] / SCALE;
+            }
+            o.count = count;
+        }
+
+        void ensure(int n) {
+            if (n <= x.length) return;
+            int cap = Integer.highestOneBit(n) << 1;
+            x = Arrays.copyOf(x, cap);
+            halfW = Arrays.copyOf(halfW, cap);
+        }
+
+        void add(int qx, int qh) {
+            ensure(count + 1);
+            x[count] = qx;
+            halfW[count] = qh;
+            count++;
+        }
+    }
+
+    // ---- encoding ----
+
+    static void keyframe(Quantized q, int frame, ByteBuffer out) {
+        int start = begin(out, KEYFRAME, frame);
+        out.putDouble(q.origin);
+        putSigned(out, q.playerX);
+        putSigned(out, q.playerY);
+        putSigned(out, q.cameraX);
+        putSigned(out, q.tunnelHeight);
+        putList(out, q.obstacles1D);
+        putList(out, q.walls);
+        end(out, start);
+    }
+
+    // the changes from prev to cur; both must have the same origin
+    static void delta(Quantized prev, Quantized cur, int frame, ByteBuffer out) {
+        int start = begin(out, DELTA, frame);
+        putSigned(out, cur.playerX - prev.playerX);
+        putSigned(out, cur.playerY - prev.playerY);
+        putSigned(out, cur.cameraX - prev.cameraX);
+        putSigned(out, cur.tunnelHeight - prev.tunnelHeight);
+        diff(prev.obstacles1D, cur.obstacles1D, out);
+        diff(prev.walls, cur.walls, out);
+        end(out, start);
+    }
+
+    private static int begin(ByteBuffer out, byte type, int frame) {
+        int start = out.position();
+        out.putInt(0); // length, filled in by end()
+        out.put(type);
+        out.putInt(frame);
+        return start;
+    }
+
+    private static void end(ByteBuffer out, int start) {
+        out.putInt(start, out.position() - start - 4);
+    }
+
+    private static void putList(ByteBuffer out, Obstacles list) {
+        putUnsigned(out, list.count);
+        int lastX = 0;
+        for (int i = 0; i < list.count; i++) {
+            putSigned(out, list.x[i] - lastX);
+            putUnsigned(out, list.halfW[i]);
+            lastX = list.x[i];
+        }
+    }
+
+    // Merge walk over the two sorted lists. Obstacles are matched by quantized x;
+    // the script is positional, so duplicates at the same x can't be confused.
+    // Usually a prune at the front, a spawn at the back and a few shrinking
+    // half-widths: a handful of bytes.
+    private static void diff(Obstacles prev, Obstacles cur, ByteBuffer out) {
+        int i = 0, j = 0;
+        int keep = 0, drop = 0;
+        int lastX = 0; // inserted x values are deltas from the previous insert
+        while (i < prev.count || j < cur.count) {
+            if (j >= cur.count || (i < prev.count && prev.x[i] < cur.x[j])) {
+                if (keep > 0) { putOp(out, keep, KEEP); keep = 0; }
+                drop++;
+                i++;
+            } else if (i >= prev.count || prev.x[i] > cur.x[j]) {
+                if (keep > 0) { putOp(out, keep, KEEP); keep = 0; }
+                if (drop > 0) { putOp(out, drop, DROP); drop = 0; }
+                putOp(out, 1, EDIT);
+                putSigned(out, cur.x[j] - lastX);
+                putUnsigned(out, cur.halfW[j]);
+                lastX = cur.x[j];
+                j++;
+            } else {
+                if (drop > 0) { putOp(out, drop, DROP); drop = 0; }
+                if (prev.halfW[i] != cur.halfW[j]) {
+                    if (keep > 0) { putOp(out, keep, KEEP); keep = 0; }
+                    putOp(out, 2, EDIT);
+                    putUnsigned(out, cur.halfW[j]);
+                } else {
+                    keep++;
+                }
+                i++;
+                j++;
+            }
+        }
+        if (drop > 0) putOp(out, drop, DROP);
+        putOp(out, 0, END);
+    }
+
+    private static void putOp(ByteBuffer out, int run, int op) {
+        putUnsigned(out, (run << 2) | op);
+    }
+
+    static void putUnsigned(ByteBuffer out, int v) {
+        while ((v & ~0x7F) != 0) {
+            out.put((byte) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.put((byte) v);
+    }
+
+    static void putSigned(ByteBuffer out, int v) {
+        putUnsigned(out, (v << 1) ^ (v >> 31));
+    }
+
+    // ---- decoding ----
+
+    static int getUnsigned(ByteBuffer in) {
+        int v = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            v |= (b & 0x7F) << shift;
+            if (b >= 0) return v;
+            if (shift >= 28) throw new IllegalStateException("Malformed varint");
+        }
+    }
+
+    static int getSigned(ByteBuffer in) {
+        int v = getUnsigned(in);
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    // Client side: keeps the last frame and applies the next one on top of it.
+    static final class Decoder {
+        private Quantized state = new Quantized();
+        private Quantized next = new Quantized();
+        private boolean synced = false;
+        private int frame;
+        // the state before the last frame, to blend from
+        private double prevOrigin = Double.NaN;
+        private int prevPlayerX, prevPlayerY, prevCameraX, prevTunnelHeight;
+
+        boolean synced() {
+            return synced;
+        }
+
+        Quantized state() {
+            return state;
+        }
+
+        // one frame body (after the length); false if it was a delta that doesn't follow
+        // the current state (then everything up to the next keyframe is ignored)
+        boolean apply(ByteBuffer in) {
+            byte type = in.get();
+            int number = in.getInt();
+            prevOrigin = synced ? state.origin : Double.NaN;
+            prevPlayerX = state.playerX;
+            prevPlayerY = state.playerY;
+            prevCameraX = state.cameraX;
+            prevTunnelHeight = state.tunnelHeight;
+            if (type == KEYFRAME) {
+                state.origin = in.getDouble();
+                state.playerX = getSigned(in);
+                state.playerY = getSigned(in);
+                state.cameraX = getSigned(in);
+                state.tunnelHeight = getSigned(in);
+                getList(in, state.obstacles1D);
+                getList(in, state.walls);
+            } else if (type == DELTA) {
+                if (!synced || number != frame + 1) {
+                    synced = false;
+                    return false;
+                }
+                next.origin = state.origin;
+                next.playerX = state.playerX + getSigned(in);
+                next.playerY = state.playerY + getSigned(in);
+                next.cameraX = state.cameraX + getSigned(in);
+                next.tunnelHeight = state.tunnelHeight + getSigned(in);
+                patch(in, state.obstacles1D, next.obstacles1D);
+                patch(in, state.walls, next.walls);
+                Quantized t = state;
+                state = next;
+                next = t;
+            } else {
+                throw new IllegalStateException("Unknown frame type " + type);
+            }
+            frame = number;
+            synced = true;
+            return true;
+        }
+
+        // the current state as a RenderState for GameRenderer, blended from the one before
+        void copyTo(RenderState s, long tickTime, long tickNanos) {
+            Quantized q = state;
+            s.tickTime = tickTime;
+            s.tickNanos = tickNanos;
+            s.originX = q.origin;
+            s.playerX = q.playerX / SCALE;
+            s.playerY = q.playerY / SCALE;
+            s.cameraX = q.cameraX / SCALE;
+            s.tunnelHeight = q.tunnelHeight / SCALE;
+            // across an origin move the old positions are in other coordinates: don't blend
+            boolean blend = prevOrigin == q.origin;
+            s.prevPlayerX = (blend ? prevPlayerX : q.playerX) / SCALE;
+            s.prevPlayerY = (blend ? prevPlayerY : q.playerY) / SCALE;
+            s.prevCameraX = (blend ? prevCameraX : q.cameraX) / SCALE;
+            s.prevTunnelHeight = (blend ? prevTunnelHeight : q.tunnelHeight) / SCALE;
+            q.obstacles1D.copyTo(s.obstacles1D);
+            q.walls.copyTo(s.walls);
+        }
+
+        private static void getList(ByteBuffer in, Obstacles list) {
+            int n = getUnsigned(in);
+            list.count = 0;
+            list.ensure(n);
+            int x = 0;
+            for (int i = 0; i < n; i++) {
+                x += getSigned(in);
+                list.add(x, getUnsigned(in));
+            }
+        }
+
+        private static void patch(ByteBuffer in, Obstacles prev, Obstacles out) {
+            out.count = 0;
+            int i = 0;
+            int lastX = 0;
+            while (true) {
+                int v = getUnsigned(in);
+                int op = v & 3;
+                int run = v >>> 2;
+                if (op == END) break;
+                if (op == KEEP) {
+                    for (int k = 0; k < run; k++, i++) out.add(prev.x[i], prev.halfW[i]);
+                } else if (op == DROP) {
+                    i += run;
+                } else if (run == 1) {
+                    lastX += getSigned(in);
+                    out.add(lastX, getUnsigned(in));
+                } else {
+                    out.add(prev.x[i], getUnsigned(in));
+                    i++;
+                }
+            }
+            for (; i < prev.count; i++) out.add(prev.x[i], prev.halfW[i]);
+        }
+    }
+}
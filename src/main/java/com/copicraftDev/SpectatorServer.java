@@ -0,0 +1,306 @@
+package com.copicraftDev;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Locale;
+
+// Streams the running game to spectators (see SpectatorProtocol) from its
+// own thread. The simulation thread publishes into a separate triple buffer
+// (feed()) after each batch of ticks, the same way it feeds the GL thread,
+// so spectators never hold it up.
+//
+// Each new state is quantized and encoded once, as a delta and (only if some
+// client needs one) as a keyframe, whatever the number of clients; sending
+// is then a copy into each client's direct buffer and a non-blocking write.
+// A client whose unsent bytes would go over MAX_QUEUED_BYTES skips frames
+// until its queue is empty and then gets a keyframe, so a slow spectator only
+// ever costs itself frames.
+//
+// -Dde.spectatorPort=<port> in Main; ./gradlew spectators runs loopback clients against it.
+final class SpectatorServer {
+
+    // a few seconds of deltas; beyond that the spectator is better off with a fresh keyframe
+    private static final int MAX_QUEUED_BYTES = 4 * 1024;
+    // keeps the kernel from queueing minutes of stream for a stalled spectator
+    private static final int SOCKET_SEND_BUFFER = 8 * 1024;
+    private static final int BUFFER_BYTES = 64 * 1024;
+    private static final long SELECT_TIMEOUT_MILLIS = 2;
+    private static final long REPORT_NANOS = 10_000_000_000L;
+
+    // one spectator connection
+    private static final class Client {
+        final SocketChannel channel;
+        final ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_BYTES); // unsent bytes, in write mode
+        boolean needsKeyframe = true;
+        long bytesSent = 0;
+        long framesSkipped = 0;
+
+        Client(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    private final TripleBuffer<RenderState> feed =
+            new TripleBuffer<>(new RenderState(), new RenderState(), new RenderState());
+    private final ServerSocketChannel server;
+    private final Selector selector;
+    private final Thread thread;
+    private volatile boolean running = true;
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    // server thread only
+    private final ByteBuffer deltaFrame = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private final ByteBuffer keyFrame = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private final ByteBuffer discard = ByteBuffer.allocateDirect(512);
+    private SpectatorProtocol.Quantized previous = new SpectatorProtocol.Quantized();
+    private SpectatorProtocol.Quantized current = new SpectatorProtocol.Quantized();
+    private RenderState lastState = null;
+    private int frame = 0;
+
+    // statistics (written by the server thread, read by report / after stop)
+    private volatile int clientCount = 0;
+    private long frames = 0;
+    private long keyframesEncoded = 0;
+    private long encodeCpuNanos = 0;
+    private long sendCpuNanos = 0;
+    private long bytesSent = 0;
+    private long clientFrames = 0; // frames handed to clients, summed over clients
+    private long framesSkipped = 0;
+    private long reportStart;
+    private long reportFrames, reportEncode, reportSend, reportBytes, reportClientFrames, reportSkipped;
+
+    SpectatorServer(int port) throws IOException {
+        server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(port));
+        server.configureBlocking(false);
+        selector = Selector.open();
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        thread = new Thread(this::run, "spectator-server");
+        thread.setDaemon(true);
+    }
+
+    // the simulation thread captures into feed().back() and publishes
+    TripleBuffer<RenderState> feed() {
+        return feed;
+    }
+
+    int port() {
+        return server.socket().getLocalPort();
+    }
+
+    int clientCount() {
+        return clientCount;
+    }
+
+    void start() {
+        reportStart = System.nanoTime();
+        thread.start();
+        System.out.println("Serving spectators on port " + port());
+    }
+
+    void stop() {
+        running = false;
+        selector.wakeup();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.out.println(summary());
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                selector.select(SELECT_TIMEOUT_MILLIS);
+                handleSelected();
+                RenderState state = feed.acquire();
+                if (state != lastState) { // acquire only hands out another buffer when something new came in
+                    lastState = state;
+                    broadcast(state);
+                }
+                if (System.nanoTime() - reportStart >= REPORT_NANOS) report();
+            }
+        } catch (IOException e) {
+            System.out.println("Spectator server stopped: " + e.getMessage());
+        } finally {
+            for (SelectionKey key : selector.keys()) closeQuietly(key);
+            try {
+                selector.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private void handleSelected() throws IOException {
+        Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+        while (it.hasNext()) {
+            SelectionKey key = it.next();
+            it.remove();
+            if (!key.isValid()) continue;
+            if (key.isAcceptable()) {
+                accept();
+            } else {
+                if (key.isReadable()) drain(key);
+                if (key.isValid() && key.isWritable()) flush(key);
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = server.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            channel.setOption(StandardSocketOptions.SO_SNDBUF, SOCKET_SEND_BUFFER);
+            channel.register(selector, SelectionKey.OP_READ, new Client(channel));
+            clientCount++;
+        }
+    }
+
+    // spectators don't send anything; reading only notices them leaving
+    private void drain(SelectionKey key) {
+        Client c = (Client) key.attachment();
+        try {
+            int n;
+            do {
+                discard.clear();
+                n = c.channel.read(discard);
+            } while (n > 0);
+            if (n < 0) closeQuietly(key);
+        } catch (IOException e) {
+            closeQuietly(key);
+        }
+    }
+
+    private void broadcast(RenderState state) {
+        long cpu = threads.getCurrentThreadCpuTime();
+        SpectatorProtocol.Quantized q = previous;
+        previous = current;
+        current = q;
+        current.capture(state);
+        frame++;
+        // a moved origin changes every position: everyone starts over from a keyframe
+        boolean originMoved = frames > 0 && current.origin != previous.origin;
+        deltaFrame.clear();
+        if (frames > 0 && !originMoved) SpectatorProtocol.delta(previous, current, frame, deltaFrame);
+        deltaFrame.flip();
+        keyFrame.clear().flip(); // encoded on first use this frame
+        frames++;
+        long afterEncode = threads.getCurrentThreadCpuTime();
+
+        for (SelectionKey key : selector.keys()) {
+            if (!(key.attachment() instanceof Client) || !key.isValid()) continue;
+            Client c = (Client) key.attachment();
+            if (originMoved || !deltaFrame.hasRemaining()) c.needsKeyframe = true;
+            // behind: this frame is lost to it, so the next one it gets must be whole; that
+            // keyframe waits until everything queued before it is out
+            boolean skip = c.needsKeyframe
+                    ? c.out.position() > 0
+                    : c.out.position() + deltaFrame.remaining() > MAX_QUEUED_BYTES;
+            if (skip) {
+                c.framesSkipped++;
+                framesSkipped++;
+                c.needsKeyframe = true;
+            } else {
+                ByteBuffer f = c.needsKeyframe ? keyframe() : deltaFrame;
+                int at = f.position();
+                c.out.put(f);
+                f.position(at); // the same bytes go to the next client
+                c.needsKeyframe = false;
+                clientFrames++;
+            }
+            flush(key);
+        }
+        long end = threads.getCurrentThreadCpuTime();
+        encodeCpuNanos += afterEncode - cpu;
+        sendCpuNanos += end - afterEncode;
+    }
+
+    private ByteBuffer keyframe() {
+        if (!keyFrame.hasRemaining()) {
+            long cpu = threads.getCurrentThreadCpuTime();
+            keyFrame.clear();
+            SpectatorProtocol.keyframe(current, frame, keyFrame);
+            keyFrame.flip();
+            keyframesEncoded++;
+            // counted as encoding, not sending
+            long spent = threads.getCurrentThreadCpuTime() - cpu;
+            encodeCpuNanos += spent;
+            sendCpuNanos -= spent;
+        }
+        return keyFrame;
+    }
+
+    // write what the socket takes now; wait for OP_WRITE for the rest
+    private void flush(SelectionKey key) {
+        Client c = (Client) key.attachment();
+        if (c.out.position() == 0) return;
+        try {
+            c.out.flip();
+            int n = c.channel.write(c.out);
+            c.out.compact();
+            c.bytesSent += n;
+            bytesSent += n;
+            key.interestOps(c.out.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+        } catch (IOException e) {
+            closeQuietly(key);
+        }
+    }
+
+    private void closeQuietly(SelectionKey key) {
+        if (!key.isValid()) return;
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException ignored) {
+        }
+        if (key.attachment() instanceof Client) clientCount--;
+    }
+
+    private void report() {
+        long now = System.nanoTime();
+        double seconds = (now - reportStart) / 1e9;
+        long f = frames - reportFrames;
+        if (f > 0 && clientCount > 0) {
+            System.out.println(String.format(Locale.ROOT,
+                    "Spectators: %d clients, %.0f B/s per client, encode %.1f us/frame, send %.1f us/frame (%.2f us per client), %d frames skipped",
+                    clientCount, (bytesSent - reportBytes) / seconds / clientCount,
+                    (encodeCpuNanos - reportEncode) / 1e3 / f, (sendCpuNanos - reportSend) / 1e3 / f,
+                    (sendCpuNanos - reportSend) / 1e3 / Math.max(1, clientFrames - reportClientFrames),
+                    framesSkipped - reportSkipped));
+        }
+        reportStart = now;
+        reportFrames = frames;
+        reportEncode = encodeCpuNanos;
+        reportSend = sendCpuNanos;
+        reportBytes = bytesSent;
+        reportClientFrames = clientFrames;
+        reportSkipped = framesSkipped;
+    }
+
+    // totals; read after stop()
+    long frames() { return frames; }
+    long keyframesEncoded() { return keyframesEncoded; }
+    long encodeCpuNanos() { return encodeCpuNanos; }
+    long sendCpuNanos() { return sendCpuNanos; }
+    long bytesSent() { return bytesSent; }
+    long clientFrames() { return clientFrames; }
+    long framesSkipped() { return framesSkipped; }
+
+    String summary() {
+        return String.format(Locale.ROOT,
+                "Spectator server: %d frames, %d keyframes encoded, %.1f KB sent, encode %.1f us/frame, send %.1f us/frame, %d frames skipped",
+                frames, keyframesEncoded, bytesSent / 1e3, encodeCpuNanos / 1e3 / Math.max(1, frames),
+                sendCpuNanos / 1e3 / Math.max(1, frames), framesSkipped);
+    }
+}
@@ -0,0 +1,41 @@
+package com.copicraftDev;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Lock-free single-producer / single-consumer triple buffer. The producer
+// fills back() and publish()es it; the consumer acquire()s the most recently
+// published value. Neither side ever waits: the producer always has a spare
+// buffer to write, and the consumer keeps its current one until a newer one
+// is published. The three values are preallocated and reused.
+final class TripleBuffer<T> {
+
+    private static final int INDEX = 3;
+    private static final int FRESH = 4; // middle holds a value the consumer hasn't taken yet
+
+    private final Object[] buffers;
+    private final AtomicInteger middle = new AtomicInteger(2);
+    private int back = 0;  // producer only
+    private int front = 1; // consumer only
+
+    TripleBuffer(T a, T b, T c) {
+        buffers = new Object[]{a, b, c};
+    }
+
+    // producer: the value to fill next
+    @SuppressWarnings("unchecked")
+    T back() {
+        return (T) buffers[back];
+    }
+
+    // producer: hand back() to the consumer and take the spare buffer
+    void publish() {
+        back = middle.getAndSet(back | FRESH) & INDEX;
+    }
+
+    // consumer: latest published value (the same as last time if nothing new arrived)
+    @SuppressWarnings("unchecked")
+    T acquire() {
+        if ((middle.get() & FRESH) != 0) front = middle.getAndSet(front) & INDEX;
+        return (T) buffers[front];
+    }
+}
@@ -0,0 +1,63 @@
+package com.copicraftDev;
+
+import java.util.Locale;
+
+// Gameplay tuning: world density and movement feel. DEFAULT is what the game
+// ships with; BatchRunner sweeps other values. Immutable, so one instance can
+// be shared by simulations on any number of threads.
+final class Tuning {
+
+    static final Tuning DEFAULT = new Tuning(0.45f, 0.35f, 2.5f, 6.0f, 2.8f, 6.0f);
+
+    // names accepted by with() and used as CSV columns, in constructor order
+    static final String[] NAMES = {"spawnChance1D", "spawnChance2D", "spawnDistance", "accel", "maxSpeed", "friction"};
+
+    final float spawnChance1D; // per 1D slot: frequent in 1D
+    final float spawnChance2D; // per wall slot: rare in 2D
+    final float spawnDistance; // 1D slot spacing (larger gaps)
+    final float accel;
+    final float maxSpeed;
+    final float friction;
+
+    Tuning(float spawnChance1D, float spawnChance2D, float spawnDistance, float accel, float maxSpeed, float friction) {
+        if (spawnChance1D < 0f || spawnChance1D > 1f) throw new IllegalArgumentException("spawnChance1D must be in [0, 1]");
+        if (spawnChance2D < 0f || spawnChance2D > 1f) throw new IllegalArgumentException("spawnChance2D must be in [0, 1]");
+        if (!(spawnDistance > 0f)) throw new IllegalArgumentException("spawnDistance must be > 0");
+        if (!(accel > 0f) || !(maxSpeed > 0f) || friction < 0f) throw new IllegalArgumentException("bad movement tuning");
+        this.spawnChance1D = spawnChance1D;
+        this.spawnChance2D = spawnChance2D;
+        this.spawnDistance = spawnDistance;
+        this.accel = accel;
+        this.maxSpeed = maxSpeed;
+        this.friction = friction;
+    }
+
+    // copy with one value replaced, by name (see NAMES)
+    Tuning with(String name, float value) {
+        float[] v = values();
+        for (int i = 0; i < NAMES.length; i++) {
+            if (NAMES[i].equals(name)) {
+                v[i] = value;
+                return new Tuning(v[0], v[1], v[2], v[3], v[4], v[5]);
+            }
+        }
+        throw new IllegalArgumentException("Unknown tuning parameter '" + name + "'");
+    }
+
+    float[] values() {
+        return new float[]{spawnChance1D, spawnChance2D, spawnDistance, accel, maxSpeed, friction};
+    }
+
+    static String csvHeader() {
+        return String.join(",", NAMES);
+    }
+
+    String toCsv() {
+        StringBuilder sb = new StringBuilder();
+        for (float v : values()) {
+            if (sb.length() > 0) sb.append(',');
+            sb.append(String.format(Locale.ROOT, "%.4f", v));
+        }
+        return sb.toString();
+    }
+}
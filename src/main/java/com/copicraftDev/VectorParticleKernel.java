@@ -0,0 +1,26 @@
+package com.copicraftDev;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorSpecies;
+
+// ParticleKernel on the jdk.incubator.vector API (needs --add-modules
+// jdk.incubator.vector). Same arithmetic as ParticleKernel.SCALAR, lane by
+// lane, at the widest float vector the CPU has. The tail that doesn't fill a
+// whole vector goes through the scalar loop.
+final class VectorParticleKernel implements ParticleKernel {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    @Override
+    public void update(float[] baseX, float[] parallax, float[] outX, int from, int to, float cameraX) {
+        int i = from;
+        int upper = from + SPECIES.loopBound(to - from);
+        for (; i < upper; i += SPECIES.length()) {
+            FloatVector offset = FloatVector.fromArray(SPECIES, baseX, i)
+                    .sub(FloatVector.fromArray(SPECIES, parallax, i).mul(cameraX));
+            FloatVector turns = offset.mul(1f / WINDOW).add(ROUND_MAGIC).sub(ROUND_MAGIC);
+            offset.sub(turns.mul(WINDOW)).add(cameraX).intoArray(outX, i);
+        }
+        SCALAR.update(baseX, parallax, outX, i, to, cameraX);
+    }
+}
@@ -0,0 +1,146 @@
+package com.copicraftDev;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+// CPU side of the batch renderer: interleaved x,y,r,g,b vertices written into
+// one persistent off-heap buffer. Nothing here touches GL; full buffers and
+// primitive switches are handed to a Sink, which does the actual upload/draw.
+public class VertexBatch {
+
+    public enum Primitive { QUADS, LINES }
+
+    public interface Sink {
+        // vertices are in [0, limit) of the buffer; called once per draw
+        void draw(Primitive primitive, FloatBuffer vertices, int vertexCount);
+    }
+
+    public static final int FLOATS_PER_VERTEX = 5;
+    public static final int STRIDE_BYTES = FLOATS_PER_VERTEX * Float.BYTES;
+
+    private final FloatBuffer buffer;
+    private final int maxVertices;
+    private final Sink sink;
+    private final float[] staging = new float[256 * 4 * FLOATS_PER_VERTEX]; // 256 quads, see squares()
+
+    private Primitive primitive = Primitive.QUADS;
+    private int vertexCount = 0;
+    private float r = 1f, g = 1f, b = 1f;
+
+    // per-frame counters (reset in begin)
+    private int drawCalls = 0;
+    private int quads = 0;
+    private int lines = 0;
+
+    public VertexBatch(int maxVertices, Sink sink) {
+        // keep whole quads together so a flush never splits one
+        this.maxVertices = maxVertices - (maxVertices % 4);
+        if (this.maxVertices < 4) throw new IllegalArgumentException("maxVertices must be >= 4");
+        this.sink = sink;
+        this.buffer = ByteBuffer.allocateDirect(this.maxVertices * STRIDE_BYTES)
+                .order(ByteOrder.nativeOrder())
+                .asFloatBuffer();
+    }
+
+    public void begin() {
+        buffer.clear();
+        vertexCount = 0;
+        drawCalls = 0;
+        quads = 0;
+        lines = 0;
+    }
+
+    public void end() {
+        flush();
+    }
+
+    public void color(float r, float g, float b) {
+        this.r = r;
+        this.g = g;
+        this.b = b;
+    }
+
+    // axis-aligned quad from (x0,y0) to (x1,y1), counter-clockwise
+    public void quad(float x0, float y0, float x1, float y1) {
+        use(Primitive.QUADS, 4);
+        vertex(x0, y0);
+        vertex(x1, y0);
+        vertex(x1, y1);
+        vertex(x0, y1);
+        quads++;
+    }
+
+    // squares centred on (cx[i], cy[i]) with half-size half[i], i < count, in the
+    // current color; those entirely outside [minX, maxX] are skipped. Vertices
+    // are staged in a float[] and bulk-copied into the buffer, instead of going
+    // through quad() and five relative puts per vertex.
+    public void squares(float[] cx, float[] cy, float[] half, int count, float minX, float maxX) {
+        use(Primitive.QUADS, 0);
+        float[] st = staging;
+        int n = 0;
+        for (int i = 0; i < count; i++) {
+            float x = cx[i];
+            float s = half[i];
+            if (x + s < minX || x - s > maxX) continue;
+            if (n == st.length || vertexCount + 4 > maxVertices) {
+                buffer.put(st, 0, n);
+                n = 0;
+                if (vertexCount + 4 > maxVertices) flush();
+            }
+            float y = cy[i];
+            float x0 = x - s, x1 = x + s, y0 = y - s, y1 = y + s;
+            st[n] = x0;      st[n + 1] = y0;  st[n + 2] = r;  st[n + 3] = g;  st[n + 4] = b;
+            st[n + 5] = x1;  st[n + 6] = y0;  st[n + 7] = r;  st[n + 8] = g;  st[n + 9] = b;
+            st[n + 10] = x1; st[n + 11] = y1; st[n + 12] = r; st[n + 13] = g; st[n + 14] = b;
+            st[n + 15] = x0; st[n + 16] = y1; st[n + 17] = r; st[n + 18] = g; st[n + 19] = b;
+            n += 4 * FLOATS_PER_VERTEX;
+            vertexCount += 4;
+            quads++;
+        }
+        buffer.put(st, 0, n);
+    }
+
+    public void line(float x0, float y0, float x1, float y1) {
+        use(Primitive.LINES, 2);
+        vertex(x0, y0);
+        vertex(x1, y1);
+        lines++;
+    }
+
+    // outline of a rectangle as four separate lines (replaces GL_LINE_LOOP)
+    public void rectOutline(float x0, float y0, float x1, float y1) {
+        line(x0, y0, x1, y0);
+        line(x1, y0, x1, y1);
+        line(x1, y1, x0, y1);
+        line(x0, y1, x0, y0);
+    }
+
+    // draw whatever is buffered so far
+    public void flush() {
+        if (vertexCount == 0) return;
+        buffer.flip();
+        sink.draw(primitive, buffer, vertexCount);
+        drawCalls++;
+        buffer.clear();
+        vertexCount = 0;
+    }
+
+    private void use(Primitive p, int vertices) {
+        if (p != primitive) {
+            flush();
+            primitive = p;
+        }
+        if (vertexCount + vertices > maxVertices) flush();
+    }
+
+    private void vertex(float x, float y) {
+        buffer.put(x).put(y).put(r).put(g).put(b);
+        vertexCount++;
+    }
+
+    public int drawCalls() { return drawCalls; }
+    public int quadCount() { return quads; }
+    public int lineCount() { return lines; }
+    public int pendingVertices() { return vertexCount; }
+}
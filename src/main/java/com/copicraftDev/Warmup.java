@@ -0,0 +1,80 @@
+package com.copicraftDev;
+
+// Gets the game code hot while the start menu is showing. A throwaway
+// Simulation driven by BotInput is stepped on a background thread, and every
+// few ticks its state is drawn by a throwaway GameRenderer into a GL backend
+// that draws nothing. By the time the button is clicked, step(), the render
+// state capture and the batch/particle path have been through the JIT.
+//
+// -Dde.warmup=false turns it off, -Dde.warmupTicks sets the length.
+final class Warmup {
+
+    // ~330 s of play; a few hundred ms of CPU, enough for C2 to compile the tick and draw paths
+    static final int DEFAULT_TICKS = 20_000;
+    private static final int RENDER_EVERY = 2;
+
+    private final long seed;
+    private final int ticks;
+    private final FrameClock clock;
+    private final Thread thread;
+    private volatile boolean cancelled = false;
+
+    Warmup(long seed, int ticks, FrameClock clock) {
+        this.seed = seed;
+        this.ticks = ticks;
+        this.clock = clock;
+        this.thread = new Thread(this::run, "warmup");
+        thread.setDaemon(true);
+    }
+
+    static boolean enabled() {
+        return Boolean.parseBoolean(System.getProperty("de.warmup", "true"));
+    }
+
+    static int ticksFromSystemProperties() {
+        return Math.max(0, Integer.getInteger("de.warmupTicks", DEFAULT_TICKS));
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    // stop early if still running (the game is about to start) and wait, so the
+    // warmup never competes with the first real frames
+    void finish() {
+        cancelled = true;
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        long start = System.nanoTime();
+        BotInput bot = new BotInput();
+        Simulation sim = new Simulation(bot, seed, false);
+        bot.attach(sim);
+        // profiled like the real game, so the enabled timing paths get compiled too
+        FrameProfiler profiler = new FrameProfiler(true, clock.tickNanos());
+        sim.setProfiler(profiler);
+        GameRenderer renderer = new GameRenderer(new GlState(new CountingGlBackend()), profiler);
+        RenderState state = new RenderState();
+
+        float dt = clock.tickSeconds();
+        int done = 0;
+        while (done < ticks && !cancelled) {
+            sim.step(dt);
+            if (done % RENDER_EVERY == 0) {
+                long now = System.nanoTime();
+                state.capture(sim, now, clock.tickNanos());
+                renderer.renderFrame(state, now);
+            }
+            done++;
+        }
+        renderer.dispose();
+        sim.close();
+        System.out.printf("Warmup: %d ticks in %d ms%s%n", done, (System.nanoTime() - start) / 1_000_000,
+                cancelled && done < ticks ? " (cut short by the game starting)" : "");
+    }
+}
@@ -0,0 +1,157 @@
+package com.copicraftDev;
+
+import org.lwjgl.glfw.GLFW;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Input fed by GLFW key/mouse callbacks instead of per-frame glfwGetKey polling.
+// Key state lives in a bitset over GLFW key codes; presses are latched until
+// consumed, so taps shorter than a frame (H toggles, clicks) are never lost.
+// The snapshot/consume methods may be called from another thread than the
+// one running the callbacks.
+public class WindowInput implements InputSource {
+
+    private final long[] down = new long[(GLFW.GLFW_KEY_LAST >>> 6) + 1]; // callback thread only
+    private final AtomicInteger held = new AtomicInteger();    // InputSource bits of held keys
+    private final AtomicInteger latched = new AtomicInteger(); // InputSource bits pressed since last poll
+    private final AtomicLongArray pressed = new AtomicLongArray(down.length); // any key, until consumed
+
+    // cursor (window coordinates, top-left origin) and latched left click
+    private volatile double cursorX;
+    private volatile double cursorY;
+    private volatile boolean clickPending = false;
+    private volatile double clickX;
+    private volatile double clickY;
+
+    public void install(long window) {
+        GLFW.glfwSetKeyCallback(window, (win, key, scancode, action, mods) -> onKey(key, action));
+        GLFW.glfwSetCursorPosCallback(window, (win, x, y) -> {
+            cursorX = x;
+            cursorY = y;
+        });
+        GLFW.glfwSetMouseButtonCallback(window, (win, button, action, mods) -> {
+            if (button == GLFW.GLFW_MOUSE_BUTTON_LEFT && action == GLFW.GLFW_PRESS) {
+                clickX = cursorX;
+                clickY = cursorY;
+                clickPending = true;
+            }
+        });
+    }
+
+    private void onKey(int key, int action) {
+        if (key < 0 || key > GLFW.GLFW_KEY_LAST || action == GLFW.GLFW_REPEAT) return;
+        boolean isDown = action == GLFW.GLFW_PRESS;
+        long bit = 1L << key;
+        if (isDown) down[key >>> 6] |= bit;
+        else down[key >>> 6] &= ~bit;
+
+        if (isDown) setPressed(key);
+
+        int mapped = actionBit(key);
+        if (mapped == 0) return;
+        if (mapped == TOGGLE) {
+            if (isDown) orBits(latched, TOGGLE);
+            return;
+        }
+        if (isDown) orBits(latched, mapped);
+        // recompute from both bound keys so releasing A doesn't cancel a held Left
+        boolean anyDown = isDown(primaryKey(mapped)) || isDown(secondaryKey(mapped));
+        if (anyDown) orBits(held, mapped);
+        else andBits(held, ~mapped);
+    }
+
+    // ---- InputSource ----
+
+    @Override
+    public int poll() {
+        return held.get() | latched.getAndSet(0);
+    }
+
+    // ---- front-end controls ----
+
+    // true once per press of the given GLFW key
+    public boolean consumePress(int key) {
+        int word = key >>> 6;
+        long bit = 1L << key;
+        while (true) {
+            long cur = pressed.get(word);
+            if ((cur & bit) == 0) return false;
+            if (pressed.compareAndSet(word, cur, cur & ~bit)) return true;
+        }
+    }
+
+    // current state of a GLFW key; key state is written by the callbacks, so
+    // read it from the thread that calls glfwPollEvents
+    public boolean isKeyDown(int key) {
+        return isDown(key);
+    }
+
+    // true once per left click; coordinates via clickX()/clickY()
+    public boolean consumeClick() {
+        if (!clickPending) return false;
+        clickPending = false;
+        return true;
+    }
+
+    public double clickX() { return clickX; }
+    public double clickY() { return clickY; }
+
+    // ---- key bindings (WASD + arrows, H) ----
+
+    private static int actionBit(int key) {
+        switch (key) {
+            case GLFW.GLFW_KEY_A: case GLFW.GLFW_KEY_LEFT: return LEFT;
+            case GLFW.GLFW_KEY_D: case GLFW.GLFW_KEY_RIGHT: return RIGHT;
+            case GLFW.GLFW_KEY_W: case GLFW.GLFW_KEY_UP: return UP;
+            case GLFW.GLFW_KEY_S: case GLFW.GLFW_KEY_DOWN: return DOWN;
+            case GLFW.GLFW_KEY_H: return TOGGLE;
+            default: return 0;
+        }
+    }
+
+    private static int primaryKey(int action) {
+        switch (action) {
+            case LEFT: return GLFW.GLFW_KEY_A;
+            case RIGHT: return GLFW.GLFW_KEY_D;
+            case UP: return GLFW.GLFW_KEY_W;
+            default: return GLFW.GLFW_KEY_S;
+        }
+    }
+
+    private static int secondaryKey(int action) {
+        switch (action) {
+            case LEFT: return GLFW.GLFW_KEY_LEFT;
+            case RIGHT: return GLFW.GLFW_KEY_RIGHT;
+            case UP: return GLFW.GLFW_KEY_UP;
+            default: return GLFW.GLFW_KEY_DOWN;
+        }
+    }
+
+    private boolean isDown(int key) {
+        return (down[key >>> 6] & (1L << key)) != 0;
+    }
+
+    private void setPressed(int key) {
+        int word = key >>> 6;
+        long bit = 1L << key;
+        while (true) {
+            long cur = pressed.get(word);
+            if (pressed.compareAndSet(word, cur, cur | bit)) return;
+        }
+    }
+
+    private static void orBits(AtomicInteger target, int bits) {
+        while (true) {
+            int cur = target.get();
+            if (target.compareAndSet(cur, cur | bits)) return;
+        }
+    }
+
+    private static void andBits(AtomicInteger target, int mask) {
+        while (true) {
+            int cur = target.get();
+            if (target.compareAndSet(cur, cur & mask)) return;
+        }
+    }
+}
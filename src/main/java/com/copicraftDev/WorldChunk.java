@@ -0,0 +1,28 @@
+package com.copicraftDev;
+
+// Obstacle layout of one CHUNK_WIDTH-wide slice of the world.
+// Filled by WorldGenerator and not modified while anyone else can see it, so it
+// can be handed from the generator thread to the game thread. The game thread
+// refills evicted chunks in place instead of allocating new ones.
+final class WorldChunk {
+
+    long index;
+
+    // bit j set = 1D obstacle in spawn slot (index * SLOTS_PER_CHUNK + j)
+    int slots1D;
+
+    // 2D walls, sorted by x; x is measured from the chunk's left edge so it
+    // stays precise however far out the chunk is
+    final float[] wallX;
+    final float[] wallHalfThickness;
+    int wallCount;
+
+    WorldChunk(int maxWalls) {
+        this.wallX = new float[maxWalls];
+        this.wallHalfThickness = new float[maxWalls];
+    }
+
+    boolean has1D(int slotInChunk) {
+        return (slots1D & (1 << slotInChunk)) != 0;
+    }
+}
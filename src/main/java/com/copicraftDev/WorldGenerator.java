@@ -0,0 +1,105 @@
+package com.copicraftDev;
+
+// Seed-driven world layout. Every chunk is a pure function of (seed, chunk index),
+// so chunks can be built in any order, on any thread, and rebuilt after eviction.
+final class WorldGenerator {
+
+    static final int SLOTS_PER_CHUNK = 8;               // 1D slots, Tuning.spawnDistance apart
+    private static final float WALL_SLOT_WIDTH = 5f;    // target width; at most one 2D wall per slot
+
+    private final long seed;
+    private final float spawnChance1D;
+    private final float spawnChance2D;
+    private final float spawnDistance;
+    private final float chunkWidth;
+    private final int wallSlotsPerChunk;
+    private final float wallSlotWidth;
+
+    WorldGenerator(long seed) {
+        this(seed, Tuning.DEFAULT);
+    }
+
+    WorldGenerator(long seed, Tuning tuning) {
+        this.seed = seed;
+        this.spawnChance1D = tuning.spawnChance1D;
+        this.spawnChance2D = tuning.spawnChance2D;
+        this.spawnDistance = tuning.spawnDistance;
+        this.chunkWidth = spawnDistance * SLOTS_PER_CHUNK;
+        // whole wall slots per chunk, so walls cover every chunk evenly
+        this.wallSlotsPerChunk = Math.max(1, Math.round(chunkWidth / WALL_SLOT_WIDTH));
+        this.wallSlotWidth = chunkWidth / wallSlotsPerChunk;
+    }
+
+    long seed() {
+        return seed;
+    }
+
+    float spawnDistance() {
+        return spawnDistance;
+    }
+
+    int wallSlotsPerChunk() {
+        return wallSlotsPerChunk;
+    }
+
+    float chunkWidth() {
+        return chunkWidth;
+    }
+
+    // chunk of x measured from the left edge of chunk 0 (or any other chunk, for a relative index)
+    long chunkOf(float x) {
+        return (long) Math.floor(x / chunkWidth);
+    }
+
+    WorldChunk generate(long chunkIndex) {
+        return generate(chunkIndex, new WorldChunk(wallSlotsPerChunk));
+    }
+
+    // fill (and return) an existing chunk, e.g. one just evicted from a cache
+    WorldChunk generate(long chunkIndex, WorldChunk into) {
+        long state = mix(seed ^ mix(chunkIndex + 0x632BE59BD9B4E019L));
+
+        int slots = 0;
+        for (int j = 0; j < SLOTS_PER_CHUNK; j++) {
+            state += GOLDEN;
+            if (unitFloat(mix(state)) < spawnChance1D) slots |= 1 << j;
+        }
+
+        float[] wallX = into.wallX;
+        float[] wallHalf = into.wallHalfThickness;
+        int walls = 0;
+        for (int j = 0; j < wallSlotsPerChunk; j++) {
+            state += GOLDEN;
+            float roll = unitFloat(mix(state));
+            state += GOLDEN;
+            float offset = unitFloat(mix(state));
+            state += GOLDEN;
+            float thickness = unitFloat(mix(state));
+            if (roll >= spawnChance2D) continue;
+
+            float halfThickness = 0.08f + thickness * 0.12f;
+            // keep the wall inside its slot so neighbouring walls never overlap
+            float usable = wallSlotWidth - 2f * halfThickness;
+            wallX[walls] = j * wallSlotWidth + halfThickness + offset * usable;
+            wallHalf[walls] = halfThickness;
+            walls++;
+        }
+        into.index = chunkIndex;
+        into.slots1D = slots;
+        into.wallCount = walls;
+        return into;
+    }
+
+    // SplitMix64
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static float unitFloat(long bits) {
+        return (bits >>> 40) * 0x1.0p-24f;
+    }
+}
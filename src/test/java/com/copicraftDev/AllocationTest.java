@@ -0,0 +1,64 @@
+package com.copicraftDev;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// The per-frame path (simulation ticks, render capture, particle update and
+// emit) must not allocate once warm. Counted per thread, so GC, JIT and other
+// tests' threads don't show up. A late deoptimization can still allocate a few
+// bytes once, so a window gets a couple of retries; anything allocated per
+// frame shows up in every window.
+class AllocationTest {
+
+    private static final float DT = 1f / 60f;
+    private static final int WARMUP_TICKS = 30_000; // past the first origin move
+    private static final int TICKS = 10_000;
+    private static final int WINDOWS = 3;
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private double particleOriginX = 0.0;
+
+    // what SimulationThread and Game do per tick and frame
+    private void frame(Simulation sim, RenderState state, ParticleField particles, VertexBatch batch) {
+        sim.step(DT);
+        state.capture(sim, 0L, 16_666_667L);
+        if (state.originX != particleOriginX) {
+            particles.rebase((float) (state.originX - particleOriginX));
+            particleOriginX = state.originX;
+        }
+        particles.update(state.cameraX);
+        batch.begin();
+        particles.emit(batch, state.cameraX);
+        batch.end();
+    }
+
+    @Test
+    void warmFramesAllocateNothing() {
+        BotInput bot = new BotInput();
+        Simulation sim = new Simulation(bot, 1L, false);
+        bot.attach(sim);
+        RenderState state = new RenderState();
+        ParticleField particles = new ParticleField(500, new Random(1L));
+        VertexBatch batch = new VertexBatch(4096, (p, v, n) -> { });
+        try {
+            for (int i = 0; i < WARMUP_TICKS; i++) frame(sim, state, particles, batch);
+
+            long allocated = Long.MAX_VALUE;
+            for (int w = 0; w < WINDOWS && allocated != 0; w++) {
+                long before = threads.getCurrentThreadAllocatedBytes();
+                for (int i = 0; i < TICKS; i++) frame(sim, state, particles, batch);
+                long after = threads.getCurrentThreadAllocatedBytes();
+                allocated = after - before;
+            }
+            assertEquals(0, allocated, "bytes allocated over " + TICKS + " warm frames");
+        } finally {
+            sim.close();
+        }
+    }
+}
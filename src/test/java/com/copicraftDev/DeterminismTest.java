@@ -0,0 +1,56 @@
+package com.copicraftDev;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeterminismTest {
+
+    private static final float DT = 1f / 60f;
+    private static final int TICKS = 60_000; // ~2400 units: conversions, prunes and two origin moves
+
+    // one hash per tick of the player's position and the full gameplay state
+    private static long[] run(long seed, boolean backgroundPrefetch) {
+        BotInput bot = new BotInput();
+        Simulation sim = new Simulation(bot, seed, backgroundPrefetch);
+        bot.attach(sim);
+        long[] hashes = new long[TICKS];
+        try {
+            for (int t = 0; t < TICKS; t++) {
+                sim.step(DT);
+                long h = sim.stateChecksum();
+                h = h * 31 + Double.doubleToLongBits(sim.worldPlayerX());
+                hashes[t] = h * 31 + Float.floatToIntBits(sim.getPlayerY());
+            }
+        } finally {
+            sim.close();
+        }
+        return hashes;
+    }
+
+    private static void assertSameRun(long[] expected, long[] actual) {
+        for (int t = 0; t < TICKS; t++) {
+            if (expected[t] != actual[t]) assertEquals(expected[t], actual[t], "runs diverge at tick " + t);
+        }
+    }
+
+    @Test
+    void sameSeedRepeatsTickForTick() {
+        assertSameRun(run(7L, false), run(7L, false));
+    }
+
+    @Test
+    void backgroundChunkPrefetchDoesNotChangeTheGame() {
+        assertSameRun(run(7L, false), run(7L, true));
+    }
+
+    @Test
+    void differentSeedsDiffer() {
+        long[] a = run(7L, false);
+        long[] b = run(8L, false);
+        boolean differ = false;
+        for (int t = 0; t < TICKS && !differ; t++) differ = a[t] != b[t];
+        assertTrue(differ);
+    }
+}
@@ -0,0 +1,110 @@
+package com.copicraftDev;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// A billion units out the game must play like it does near 0: positions stay
+// small around a moving origin, collisions stop the player exactly at an
+// obstacle's edge and movement per tick is the same.
+class FloatingOriginTest {
+
+    private static final float DT = 1f / 60f;
+    private static final double FAR = 1e9;
+    private static final int TICKS = 60_000; // ~2400 units, two origin moves
+
+    private static final class Run {
+        long collisionsChecked = 0;
+        double maxStep = 0.0;
+        double distance = 0.0;
+        int originMoves = 0;
+        float maxLocalX = 0f;
+    }
+
+    // bot session from startX; every new collision must leave the player touching an obstacle
+    private static Run play(double startX) {
+        BotInput bot = new BotInput();
+        Simulation sim = new Simulation(bot, 1L, false);
+        if (startX != 0.0) sim.teleport(startX);
+        bot.attach(sim);
+        Run run = new Run();
+        try {
+            assertEquals(startX, sim.worldPlayerX(), 1e-3, "start");
+            double origin = sim.originX();
+            double start = sim.worldPlayerX();
+            double lastX = start;
+            long collisions = 0;
+            for (int t = 0; t < TICKS; t++) {
+                sim.step(DT);
+                double x = sim.worldPlayerX();
+                run.maxStep = Math.max(run.maxStep, x - lastX);
+                lastX = x;
+                run.maxLocalX = Math.max(run.maxLocalX, Math.abs(sim.getPlayerX()));
+                if (sim.originX() != origin) {
+                    run.originMoves++;
+                    origin = sim.originX();
+                }
+                if (sim.collisions() != collisions) {
+                    collisions = sim.collisions();
+                    assertTrue(touchesObstacle(sim), "tick " + t + ": player at " + sim.getPlayerX() + " touches nothing");
+                    run.collisionsChecked++;
+                }
+            }
+            run.distance = lastX - start;
+        } finally {
+            sim.close();
+        }
+        return run;
+    }
+
+    // the player's edge on an obstacle's edge, to the bit (the hit position sweepAgainst computes)
+    private static boolean touchesObstacle(Simulation sim) {
+        float x = sim.getPlayerX();
+        return touches(sim.obstacles1D(), Simulation.OBSTACLE_HALF_COLLISION, x)
+                || touches(sim.tunnelObstacles(), -1f, x);
+    }
+
+    private static boolean touches(ObstacleStore store, float fixedHalfW, float playerX) {
+        for (int i = 0; i < store.size(); i++) {
+            if (!store.isActive(i)) continue;
+            float halfW = fixedHalfW >= 0f ? fixedHalfW : store.halfW(i);
+            float left = store.x(i) - halfW;
+            float right = store.x(i) + halfW;
+            if (playerX == left - Simulation.PLAYER_HALF_W || playerX == right + Simulation.PLAYER_HALF_W) return true;
+        }
+        return false;
+    }
+
+    @Test
+    void teleportRebasesTheOrigin() {
+        BotInput bot = new BotInput();
+        Simulation sim = new Simulation(bot, 1L, false);
+        try {
+            sim.teleport(FAR);
+            assertTrue(sim.originX() > FAR - 1024 && sim.originX() <= FAR, "origin " + sim.originX());
+            assertTrue(Math.abs(sim.getPlayerX()) < 1024f, "local x " + sim.getPlayerX());
+            assertEquals(FAR, sim.worldPlayerX(), 1e-3);
+        } finally {
+            sim.close();
+        }
+    }
+
+    @Test
+    void farOutPlaysLikeNearZero() {
+        Run near = play(0.0);
+        Run far = play(FAR);
+
+        assertTrue(far.originMoves >= 2, far.originMoves + " origin moves");
+        assertTrue(far.maxLocalX < 1100f, "local x reached " + far.maxLocalX);
+
+        // collisions happen and stop the player exactly at the edge in both
+        assertTrue(near.collisionsChecked > 100, near.collisionsChecked + " collisions near 0");
+        assertTrue(far.collisionsChecked > 100, far.collisionsChecked + " collisions far out");
+
+        // same top speed per tick (a float world x out there would move in steps of 64)
+        assertEquals(near.maxStep, far.maxStep, 1e-4, "max progress per tick");
+        // different stretches of world, so only about the same distance
+        assertEquals(near.distance, far.distance, near.distance * 0.1, "distance over " + TICKS + " ticks");
+    }
+}
@@ -0,0 +1,87 @@
+package com.copicraftDev;
+
+import org.junit.jupiter.api.Test;
+import org.lwjgl.opengl.GL11;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// GL calls per frame against a CountingGlBackend, like ./gradlew glCalls: once
+// the state cache is warm a frame is a clear, three uploads + draws (quads,
+// the tunnel outline's lines, quads again) and the projection when the camera moved.
+class GlCallTest {
+
+    private static final int FRAMES = 600;
+
+    private final CountingGlBackend counter = new CountingGlBackend();
+    private final GlState gl = new GlState(counter);
+    private final FrameClock clock = new FrameClock(60, 1);
+    private final RenderState state = new RenderState();
+
+    private long[] warmFrames(QualityGovernor.Level level) {
+        gl.viewport(0, 0, 800, 600);
+        Simulation sim = new Simulation(() -> InputSource.RIGHT, 1L, false);
+        GameRenderer renderer = new GameRenderer(gl, FrameProfiler.OFF);
+        renderer.setQuality(level);
+        try {
+            GlCallReport.frame(sim, state, renderer, clock);
+            counter.reset();
+            long[] calls = new long[FRAMES];
+            for (int f = 0; f < FRAMES; f++) {
+                long before = counter.total();
+                GlCallReport.frame(sim, state, renderer, clock);
+                calls[f] = counter.total() - before;
+            }
+            return calls;
+        } finally {
+            renderer.dispose();
+            sim.close();
+        }
+    }
+
+    @Test
+    void warmFramesTakeTenToThirteenCalls() {
+        long[] calls = warmFrames(QualityGovernor.LEVELS[0]);
+        for (int f = 0; f < FRAMES; f++) {
+            assertTrue(calls[f] >= 10 && calls[f] <= 13, "frame " + f + ": " + calls[f] + " calls");
+        }
+        assertEquals(3L * FRAMES, counter.count(CountingGlBackend.Call.DRAW_ARRAYS));
+    }
+
+    @Test
+    void withoutTheOutlineEverythingIsOneDraw() {
+        long[] calls = warmFrames(QualityGovernor.LEVELS[QualityGovernor.LEVELS.length - 1]);
+        for (int f = 0; f < FRAMES; f++) {
+            assertTrue(calls[f] >= 4 && calls[f] <= 7, "frame " + f + ": " + calls[f] + " calls");
+        }
+        assertEquals(FRAMES, counter.count(CountingGlBackend.Call.DRAW_ARRAYS));
+    }
+
+    @Test
+    void redundantStateCallsAreDropped() {
+        warmFrames(QualityGovernor.LEVELS[0]);
+        // the same viewport, clear color, line width, buffer and arrays every frame: never re-sent
+        for (CountingGlBackend.Call c : new CountingGlBackend.Call[] {
+                CountingGlBackend.Call.VIEWPORT, CountingGlBackend.Call.CLEAR_COLOR, CountingGlBackend.Call.LINE_WIDTH,
+                CountingGlBackend.Call.BIND_BUFFER, CountingGlBackend.Call.ENABLE_CLIENT_STATE,
+                CountingGlBackend.Call.VERTEX_POINTER, CountingGlBackend.Call.COLOR_POINTER}) {
+            assertEquals(0, counter.count(c), c.name());
+        }
+        // one clear per frame; the projection only when the camera moved
+        assertEquals(FRAMES, counter.count(CountingGlBackend.Call.CLEAR));
+        assertTrue(counter.count(CountingGlBackend.Call.ORTHO) < FRAMES);
+
+        counter.reset();
+        gl.viewport(0, 0, 800, 600);
+        gl.clearColor(0.82f, 0.82f, 0.82f, 1f);
+        assertEquals(0, counter.total());
+        gl.viewport(0, 0, 1024, 768);
+        gl.viewport(0, 0, 1024, 768);
+        assertEquals(1, counter.count(CountingGlBackend.Call.VIEWPORT));
+
+        // clearing is the one call that must reach GL every time
+        gl.clear(GL11.GL_COLOR_BUFFER_BIT);
+        gl.clear(GL11.GL_COLOR_BUFFER_BIT);
+        assertEquals(2, counter.count(CountingGlBackend.Call.CLEAR));
+    }
+}
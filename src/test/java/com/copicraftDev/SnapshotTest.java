@@ -0,0 +1,61 @@
+package com.copicraftDev;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnapshotTest {
+
+    private static final float DT = 1f / 60f;
+
+    @Test
+    void restoredSnapshotReplaysTheSameTicks() {
+        Simulation sim = new Simulation(() -> InputSource.RIGHT, 1L, false);
+        SnapshotRing ring = new SnapshotRing(4, Simulation.INITIAL_SNAPSHOT_BYTES);
+        try {
+            for (int t = 0; t < 6_000; t++) sim.step(DT);
+            ring.ensureSlotBytes(sim.snapshotBytes());
+            sim.writeSnapshot(ring.buffer(), ring.nextOffset());
+            ring.push();
+            for (int t = 0; t < 600; t++) sim.step(DT);
+            long expected = sim.stateChecksum();
+
+            sim.readSnapshot(ring.buffer(), ring.popNewest());
+            for (int t = 0; t < 600; t++) sim.step(DT);
+            assertEquals(expected, sim.stateChecksum());
+        } finally {
+            sim.close();
+        }
+    }
+
+    // more obstacles than the slots were sized for: the slots grow and keep the older snapshots
+    @Test
+    void slotsGrowForBigStores() {
+        ObstacleStore small = new ObstacleStore(16);
+        small.add(1f, 0.5f, 0.5f, 0f);
+        ObstacleStore big = new ObstacleStore(16);
+        for (int i = 0; i < 1000; i++) big.add(i, 0.1f, 0.1f, 0f);
+        big.setActive(7, false);
+
+        SnapshotRing ring = new SnapshotRing(3, ObstacleStore.snapshotBytes(4));
+        assertFalse(ring.ensureSlotBytes(small.snapshotBytes()));
+        small.writeSnapshot(ring.buffer(), ring.nextOffset());
+        ring.push();
+        assertTrue(ring.ensureSlotBytes(big.snapshotBytes()));
+        assertTrue(ring.slotBytes() >= big.snapshotBytes());
+        int end = big.writeSnapshot(ring.buffer(), ring.nextOffset());
+        assertEquals(ring.nextOffset() + big.snapshotBytes(), end);
+        ring.push();
+
+        ObstacleStore restored = new ObstacleStore(16);
+        restored.readSnapshot(ring.buffer(), ring.popNewest());
+        assertEquals(1000, restored.size());
+        assertEquals(999f, restored.x(999));
+        assertFalse(restored.isActive(7));
+        restored.readSnapshot(ring.buffer(), ring.popNewest());
+        assertEquals(1, restored.size());
+        assertEquals(0.5f, restored.halfW(0));
+    }
+}
@@ -0,0 +1,129 @@
+package com.copicraftDev;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SweepTest {
+
+    private static final float DT = 1f / 60f;
+
+    // the hit test of Simulation.sweepAgainst over every obstacle, no range query
+    private static float bruteForce(ObstacleStore store, float fixedHalfW, float oldX, float intendedX, float dx) {
+        float p = Simulation.PLAYER_HALF_W;
+        float candidateX = intendedX;
+        for (int i = 0; i < store.size(); i++) {
+            if (!store.isActive(i)) continue;
+            float halfW = fixedHalfW >= 0f ? fixedHalfW : store.halfW(i);
+            float left = store.x(i) - halfW;
+            float right = store.x(i) + halfW;
+            if (dx > 0f && oldX + p <= left && intendedX + p >= left) {
+                candidateX = Math.min(candidateX, left - p);
+            } else if (dx < 0f && oldX - p >= right && intendedX - p <= right) {
+                candidateX = Math.max(candidateX, right + p);
+            }
+        }
+        return candidateX;
+    }
+
+    // a mix like the game's: narrow 1D obstacles, converted walls still shrinking
+    // from the full tunnel width, repeated x values and some inactive ones
+    private static ObstacleStore randomStore(Random rnd, float base) {
+        ObstacleStore store = new ObstacleStore(16);
+        int n = 1 + rnd.nextInt(200);
+        float last = base;
+        for (int i = 0; i < n; i++) {
+            float x = rnd.nextInt(4) == 0 ? last : base + rnd.nextFloat() * 40f;
+            switch (rnd.nextInt(3)) {
+                case 0 -> store.add(x, Simulation.OBSTACLE_HALF_COLLISION, Simulation.OBSTACLE_HALF_COLLISION, 10f);
+                case 1 -> store.add(x, 0.5f + rnd.nextFloat() * 1.5f, Simulation.OBSTACLE_HALF_COLLISION, 8f);
+                default -> {
+                    float w = 0.01f + rnd.nextFloat() * 0.3f;
+                    store.add(x, w, w, 0f);
+                }
+            }
+            last = x;
+        }
+        for (int i = 0; i < store.size(); i++) {
+            if (rnd.nextInt(8) == 0) store.setActive(i, false);
+        }
+        Smoothing smoothing = new Smoothing();
+        smoothing.beginTick(DT);
+        int steps = rnd.nextInt(40);
+        for (int i = 0; i < steps; i++) store.animate(smoothing);
+        if (rnd.nextBoolean()) store.pruneBefore(base + rnd.nextFloat() * 20f);
+        return store;
+    }
+
+    private static void compare(long seed, float base) {
+        Random rnd = new Random(seed);
+        for (int trial = 0; trial < 200; trial++) {
+            ObstacleStore store = randomStore(rnd, base);
+            for (int k = 0; k < 200; k++) {
+                float oldX = base - 2f + rnd.nextFloat() * 44f;
+                float dx = (rnd.nextFloat() * 2f - 1f) * (rnd.nextBoolean() ? 0.1f : 6f);
+                float intendedX = oldX + dx;
+                for (float fixed : new float[] {-1f, Simulation.OBSTACLE_HALF_COLLISION}) {
+                    float expected = bruteForce(store, fixed, oldX, intendedX, dx);
+                    float actual = Simulation.sweepAgainst(store, fixed, oldX, intendedX, dx);
+                    assertEquals(expected, actual, "seed " + seed + " trial " + trial + " sweep " + oldX + " -> " + intendedX
+                            + (fixed < 0f ? " (own half-widths)" : " (fixed half-width)"));
+                }
+            }
+        }
+    }
+
+    @Test
+    void matchesBruteForceNearOrigin() {
+        compare(1L, -20f);
+    }
+
+    @Test
+    void matchesBruteForceFarOut() {
+        // coarse floats: the slack around the binary-searched slice matters here
+        compare(2L, 1_000_000f);
+    }
+
+    @Test
+    void maxHalfWFollowsPrunedAndSettledObstacles() {
+        ObstacleStore store = new ObstacleStore(16);
+        store.add(0f, 2f, Simulation.OBSTACLE_HALF_COLLISION, 8f); // a converted wall
+        store.add(1f, 0.5f, 0.5f, 0f);
+        store.add(2f, Simulation.OBSTACLE_HALF_COLLISION, Simulation.OBSTACLE_HALF_COLLISION, 10f);
+        assertEquals(2f, store.maxHalfW());
+
+        store.pruneBefore(0.5f);
+        assertEquals(0.5f, store.maxHalfW());
+
+        store.add(3f, 2f, Simulation.OBSTACLE_HALF_COLLISION, 8f);
+        assertEquals(2f, store.maxHalfW());
+        Smoothing smoothing = new Smoothing();
+        smoothing.beginTick(DT);
+        for (int i = 0; i < 600 && store.animatingCount() > 0; i++) store.animate(smoothing);
+        assertEquals(0, store.animatingCount());
+        assertEquals(0.5f, store.maxHalfW());
+
+        store.pruneBefore(1.5f);
+        assertEquals(Simulation.OBSTACLE_HALF_COLLISION, store.maxHalfW());
+        store.clear();
+        assertEquals(0f, store.maxHalfW());
+    }
+
+    @Test
+    void maxHalfWBoundsLiveObstacles() {
+        Random rnd = new Random(3L);
+        for (int trial = 0; trial < 200; trial++) {
+            ObstacleStore store = randomStore(rnd, 0f);
+            float widest = 0f;
+            for (int i = 0; i < store.size(); i++) {
+                widest = Math.max(widest, Math.max(store.halfW(i), store.targetHalfW(i)));
+            }
+            // may stay high while a wide obstacle is still shrinking, exact once they have all settled
+            assertTrue(store.maxHalfW() >= widest, "trial " + trial);
+            if (store.animatingCount() == 0) assertEquals(widest, store.maxHalfW(), "trial " + trial);
+        }
+    }
+}
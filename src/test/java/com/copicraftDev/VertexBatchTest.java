@@ -0,0 +1,158 @@
+package com.copicraftDev;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class VertexBatchTest {
+
+    // what the sink was handed, copied out since the batch reuses its buffer
+    private static final class Draw {
+        final VertexBatch.Primitive primitive;
+        final float[] vertices;
+
+        Draw(VertexBatch.Primitive primitive, FloatBuffer buffer, int vertexCount) {
+            this.primitive = primitive;
+            this.vertices = new float[vertexCount * VertexBatch.FLOATS_PER_VERTEX];
+            assertEquals(vertices.length, buffer.remaining(), "buffer limit");
+            buffer.get(buffer.position(), vertices);
+        }
+    }
+
+    private final List<Draw> draws = new ArrayList<>();
+
+    private VertexBatch batch(int maxVertices) {
+        return new VertexBatch(maxVertices, (p, v, n) -> draws.add(new Draw(p, v, n)));
+    }
+
+    @Test
+    void quadIsInterleavedCounterClockwise() {
+        VertexBatch b = batch(64);
+        b.begin();
+        b.color(0.1f, 0.2f, 0.3f);
+        b.quad(1f, 2f, 3f, 4f);
+        b.end();
+
+        assertEquals(1, draws.size());
+        assertEquals(VertexBatch.Primitive.QUADS, draws.get(0).primitive);
+        assertArrayEquals(new float[] {
+                1f, 2f, 0.1f, 0.2f, 0.3f,
+                3f, 2f, 0.1f, 0.2f, 0.3f,
+                3f, 4f, 0.1f, 0.2f, 0.3f,
+                1f, 4f, 0.1f, 0.2f, 0.3f,
+        }, draws.get(0).vertices);
+        assertEquals(1, b.quadCount());
+    }
+
+    @Test
+    void rectOutlineIsFourLines() {
+        VertexBatch b = batch(64);
+        b.begin();
+        b.color(1f, 0f, 0.5f);
+        b.rectOutline(0f, 0f, 2f, 1f);
+        b.end();
+
+        assertEquals(1, draws.size());
+        assertEquals(VertexBatch.Primitive.LINES, draws.get(0).primitive);
+        assertArrayEquals(new float[] {
+                0f, 0f, 1f, 0f, 0.5f,  2f, 0f, 1f, 0f, 0.5f,
+                2f, 0f, 1f, 0f, 0.5f,  2f, 1f, 1f, 0f, 0.5f,
+                2f, 1f, 1f, 0f, 0.5f,  0f, 1f, 1f, 0f, 0.5f,
+                0f, 1f, 1f, 0f, 0.5f,  0f, 0f, 1f, 0f, 0.5f,
+        }, draws.get(0).vertices);
+        assertEquals(4, b.lineCount());
+    }
+
+    @Test
+    void squaresMatchQuads() {
+        float[] cx = {0f, 10f, 100f};
+        float[] cy = {1f, 2f, 3f};
+        float[] half = {0.5f, 1f, 2f};
+        VertexBatch b = batch(64);
+        b.begin();
+        b.color(0.4f, 0.5f, 0.6f);
+        b.squares(cx, cy, half, 3, -1f, 20f); // the last one is culled
+        b.end();
+        b.begin();
+        b.quad(-0.5f, 0.5f, 0.5f, 1.5f);
+        b.quad(9f, 1f, 11f, 3f);
+        b.end();
+
+        assertEquals(2, draws.size());
+        assertArrayEquals(draws.get(1).vertices, draws.get(0).vertices);
+    }
+
+    @Test
+    void fullBufferFlushesWholeQuads() {
+        VertexBatch b = batch(10); // rounded down to 8 vertices: two quads per draw
+        b.begin();
+        for (int i = 0; i < 5; i++) b.quad(i, 0f, i + 1, 1f);
+        b.end();
+
+        assertEquals(3, draws.size());
+        assertEquals(3, b.drawCalls());
+        assertEquals(8 * VertexBatch.FLOATS_PER_VERTEX, draws.get(0).vertices.length);
+        assertEquals(8 * VertexBatch.FLOATS_PER_VERTEX, draws.get(1).vertices.length);
+        assertEquals(4 * VertexBatch.FLOATS_PER_VERTEX, draws.get(2).vertices.length);
+        // nothing lost or reordered across the splits
+        for (int i = 0; i < 5; i++) {
+            float[] v = draws.get(i / 2).vertices;
+            assertEquals(i, v[(i % 2) * 4 * VertexBatch.FLOATS_PER_VERTEX], "quad " + i);
+        }
+    }
+
+    @Test
+    void squaresSplitAcrossFlushes() {
+        int count = 300; // more than one staging pass and more than the buffer holds
+        float[] cx = new float[count], cy = new float[count], half = new float[count];
+        for (int i = 0; i < count; i++) {
+            cx[i] = i;
+            half[i] = 0.25f;
+        }
+        VertexBatch b = batch(64);
+        b.begin();
+        b.squares(cx, cy, half, count, -1f, count);
+        b.end();
+
+        assertEquals((count * 4 + 63) / 64, draws.size());
+        int quads = 0;
+        for (Draw d : draws) {
+            for (int q = 0; q < d.vertices.length / (4 * VertexBatch.FLOATS_PER_VERTEX); q++, quads++) {
+                assertEquals(quads - 0.25f, d.vertices[q * 4 * VertexBatch.FLOATS_PER_VERTEX], "square " + quads);
+            }
+        }
+        assertEquals(count, quads);
+        assertEquals(count, b.quadCount());
+    }
+
+    @Test
+    void switchingPrimitivesCostsOneDrawEach() {
+        VertexBatch b = batch(64);
+        b.begin();
+        b.quad(0f, 0f, 1f, 1f);
+        b.quad(1f, 0f, 2f, 1f);
+        b.rectOutline(0f, 0f, 2f, 1f);
+        b.line(0f, 0f, 2f, 1f);
+        b.quad(2f, 0f, 3f, 1f);
+        b.end();
+
+        assertEquals(3, b.drawCalls());
+        assertEquals(VertexBatch.Primitive.QUADS, draws.get(0).primitive);
+        assertEquals(VertexBatch.Primitive.LINES, draws.get(1).primitive);
+        assertEquals(VertexBatch.Primitive.QUADS, draws.get(2).primitive);
+        assertEquals(5 * 2 * VertexBatch.FLOATS_PER_VERTEX, draws.get(1).vertices.length);
+        assertEquals(3, b.quadCount());
+        assertEquals(5, b.lineCount());
+
+        // counters start over each frame; an empty batch draws nothing
+        b.begin();
+        b.end();
+        assertEquals(0, b.drawCalls());
+        assertEquals(3, draws.size());
+    }
+}